@@ -18,6 +18,8 @@ val slf4jVersion = providers.gradleProperty("slf4j_version")
 val commonsLang3Version = providers.gradleProperty("commons_lang3_version")
 val junitJupiterVersion = providers.gradleProperty("junit_jupiter_version")
 val assertjCoreVersion = providers.gradleProperty("assertj_core_version")
+val jmhVersion = providers.gradleProperty("jmh_version")
+val jmhIncludes = providers.gradleProperty("jmh_includes")
 val javaVersion = providers.gradleProperty("java_version")
 val dokkaVersion = providers.gradleProperty("dokka_version")
 val projectDescription = "Java library used to launch external processes."
@@ -25,6 +27,16 @@ description = projectDescription
 base.archivesName = projectName.get()
 group = projectGroup.get()
 version = projectVersion.get()
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+configurations {
+    named("jmhImplementation") { extendsFrom(implementation.get(), shadow.get()) }
+    named("testImplementation") { extendsFrom(shadow.get()) }
+}
 repositories {
     mavenCentral()
     maven {
@@ -44,6 +56,9 @@ dependencies {
     testImplementation("org.assertj:assertj-core:${assertjCoreVersion.get()}")
     testRuntimeOnly("org.slf4j:slf4j-simple:${slf4jVersion.get()}")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher:${junitJupiterVersion.get()}")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:${jmhVersion.get()}")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:${jmhVersion.get()}")
 }
 tasks {
     java {
@@ -75,6 +90,20 @@ tasks {
     named("build") {
         dependsOn(shadowJar, named("dokkaJar"))
     }
+    register<JavaExec>("jmh") {
+        group = "benchmark"
+        description = "Runs the JMH benchmarks, pass -Pjmh_includes=<regex> to select a subset."
+        classpath = sourceSets["jmh"].runtimeClasspath
+        mainClass = "org.openjdk.jmh.Main"
+        val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+        outputs.file(resultFile)
+        outputs.upToDateWhen { false }
+        doFirst { resultFile.get().asFile.parentFile.mkdirs() }
+        args("-prof", "gc", "-rf", "json", "-rff", resultFile.get().asFile.absolutePath)
+        if (jmhIncludes.isPresent) {
+            args(jmhIncludes.get())
+        }
+    }
     register<Jar>("dokkaJar") {
         group = JavaBasePlugin.DOCUMENTATION_GROUP
         dependsOn(dokkaGenerateHtml)
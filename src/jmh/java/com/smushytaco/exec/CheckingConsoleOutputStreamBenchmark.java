@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CheckingConsoleOutputStream} scanning output that never contains the awaited
+ * literal, i.e. the cost paid on every byte a daemon prints before it becomes ready.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckingConsoleOutputStreamBenchmark {
+
+    @Param({"1", "64", "1024", "8192"})
+    int chunkSize;
+
+    @Param({"40", "120", "400"})
+    int meanLineLength;
+
+    private byte[] payload = new byte[0];
+    private CheckingConsoleOutputStream checking =
+            new CheckingConsoleOutputStream("x", null, null);
+
+    @Setup
+    public void setUp() {
+        payload = OutputPayload.create(meanLineLength);
+        checking =
+                new CheckingConsoleOutputStream(
+                        "Server is ready to accept connections", null, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        OutputPayload.write(checking, payload, chunkSize);
+    }
+}
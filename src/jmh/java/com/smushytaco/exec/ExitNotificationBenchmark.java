@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes from starting a child process which exits right away until its
+ * {@link ManagedProcess} reports the exit value, with a thread blocking in {@link Process#waitFor()}
+ * versus a notification via {@link Process#onExit()}.
+ *
+ * <p>Launching the child costs the same in both variants, so the difference between them is the
+ * latency of the exit notification.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExitNotificationBenchmark {
+
+    @Param({"false", "true"})
+    boolean asyncExitNotification;
+
+    private ManagedProcessBuilder builder;
+
+    @Setup
+    public void setUp() throws ManagedProcessException {
+        builder =
+                new ManagedProcessBuilder("true")
+                        .setDestroyOnShutdown(false)
+                        .setConsoleBufferMaxLines(0)
+                        .setAsyncExitNotification(asyncExitNotification);
+    }
+
+    @Benchmark
+    public int startToExitValue() throws ManagedProcessException, ManagedProcessInterruptedException {
+        return builder.build().start().waitForExit();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the fan-out cost of {@link MultiOutputStream} for a growing number of sinks.
+ *
+ * <p>Sinks only hand the bytes to a {@link Blackhole}, so the numbers isolate the multiplexer
+ * itself. One operation pushes {@link OutputPayload#SIZE} bytes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MultiOutputStreamBenchmark {
+
+    @Param({"1", "3", "8"})
+    int sinkCount;
+
+    @Param({"1", "64", "1024", "8192"})
+    int chunkSize;
+
+    @Param({"40", "120", "400"})
+    int meanLineLength;
+
+    private byte[] payload = new byte[0];
+    private MultiOutputStream multi = new MultiOutputStream();
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        payload = OutputPayload.create(meanLineLength);
+        multi = new MultiOutputStream();
+        for (int i = 0; i < sinkCount; i++) {
+            multi.addOutputStream(new BlackholeOutputStream(blackhole));
+        }
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        OutputPayload.write(multi, payload, chunkSize);
+    }
+
+    static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(off + len);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic child process output shared by the output benchmarks.
+ *
+ * <p>Each payload is {@link #SIZE} bytes of newline terminated, log-like ASCII lines whose lengths
+ * are spread uniformly around the requested mean, so that line framing sees a realistic mix of
+ * short and long lines instead of one fixed length.
+ */
+final class OutputPayload {
+
+    /** Bytes written per benchmark operation; divide throughput by this to get MB/s. */
+    static final int SIZE = 64 * 1024;
+
+    private static final byte[] WORDS =
+            "INFO WARN DEBUG request handled in ms connection pool worker thread started listening"
+                    .getBytes(StandardCharsets.US_ASCII);
+
+    private OutputPayload() {}
+
+    /**
+     * Creates a deterministic payload.
+     *
+     * @param meanLineLength mean line length in bytes, including the trailing newline
+     * @return the payload bytes
+     */
+    static byte[] create(int meanLineLength) {
+        SplittableRandom random = new SplittableRandom(42);
+        byte[] payload = new byte[SIZE];
+        int pos = 0;
+        while (pos < SIZE) {
+            int lineLength = random.nextInt(Math.max(2, meanLineLength / 2), meanLineLength * 3 / 2 + 1);
+            int end = Math.min(SIZE, pos + lineLength) - 1;
+            int word = random.nextInt(WORDS.length);
+            while (pos < end) {
+                payload[pos++] = WORDS[word++ % WORDS.length];
+            }
+            payload[pos++] = '\n';
+        }
+        return payload;
+    }
+
+    /**
+     * Pushes the payload into the stream the way a pump would.
+     *
+     * @param out the stream under test
+     * @param payload the payload from {@link #create(int)}
+     * @param chunkSize {@code 1} to use {@link OutputStream#write(int)}, otherwise the size of each
+     *     {@link OutputStream#write(byte[], int, int)} call
+     * @throws IOException if the stream fails
+     */
+    static void write(OutputStream out, byte[] payload, int chunkSize) throws IOException {
+        if (chunkSize == 1) {
+            for (byte b : payload) {
+                out.write(b);
+            }
+            return;
+        }
+        for (int off = 0; off < payload.length; off += chunkSize) {
+            out.write(payload, off, Math.min(chunkSize, payload.length - off));
+        }
+    }
+}
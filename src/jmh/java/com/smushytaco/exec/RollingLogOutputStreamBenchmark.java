@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures appending to the rolling console buffer, and reading it back via {@link
+ * RollingLogOutputStream#getRecentLines()}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RollingLogOutputStreamBenchmark {
+
+    @Param({"1", "64", "1024", "8192"})
+    int chunkSize;
+
+    @Param({"40", "120", "400"})
+    int meanLineLength;
+
+    @Param({"100"})
+    int maxLines;
+
+    private byte[] payload = new byte[0];
+    private RollingLogOutputStream console = new RollingLogOutputStream(1);
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = OutputPayload.create(meanLineLength);
+        console = new RollingLogOutputStream(maxLines);
+        // start from a full buffer, like a long-running daemon
+        OutputPayload.write(console, payload, 8192);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        OutputPayload.write(console, payload, chunkSize);
+    }
+
+    @Benchmark
+    public String getRecentLines() {
+        return console.getRecentLines();
+    }
+}
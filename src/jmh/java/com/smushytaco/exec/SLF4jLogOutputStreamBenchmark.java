@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.AbstractLogger;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SLF4jLogOutputStream}, i.e. line framing, level dispatch and message formatting.
+ *
+ * <p>The logger formats every message like a real backend would and hands it to a {@link
+ * Blackhole}, so no appender I/O is included.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SLF4jLogOutputStreamBenchmark {
+
+    @Param({"1", "64", "1024", "8192"})
+    int chunkSize;
+
+    @Param({"40", "120", "400"})
+    int meanLineLength;
+
+    private byte[] payload = new byte[0];
+    private SLF4jLogOutputStream stream;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        payload = OutputPayload.create(meanLineLength);
+        stream =
+                new SLF4jLogOutputStream(
+                        new BlackholeLogger(blackhole),
+                        "bench",
+                        OutputStreamType.STDOUT,
+                        new OutputStreamLogDispatcher());
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        OutputPayload.write(stream, payload, chunkSize);
+    }
+
+    static final class BlackholeLogger extends AbstractLogger {
+        @Serial private static final long serialVersionUID = 1L;
+
+        private final transient Blackhole blackhole;
+
+        BlackholeLogger(Blackhole blackhole) {
+            this.blackhole = blackhole;
+            this.name = "bench";
+        }
+
+        @Override
+        protected String getFullyQualifiedCallerName() {
+            return BlackholeLogger.class.getName();
+        }
+
+        @Override
+        protected void handleNormalizedLoggingCall(
+                Level level,
+                @Nullable Marker marker,
+                String messagePattern,
+                Object @Nullable [] arguments,
+                @Nullable Throwable throwable) {
+            blackhole.consume(MessageFormatter.basicArrayFormat(messagePattern, arguments));
+        }
+
+        @Override
+        public boolean isTraceEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isTraceEnabled(Marker marker) {
+            return true;
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isDebugEnabled(Marker marker) {
+            return true;
+        }
+
+        @Override
+        public boolean isInfoEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isInfoEnabled(Marker marker) {
+            return true;
+        }
+
+        @Override
+        public boolean isWarnEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isWarnEnabled(Marker marker) {
+            return true;
+        }
+
+        @Override
+        public boolean isErrorEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isErrorEnabled(Marker marker) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures arming and cancelling a {@link StopCheckExecuteWatchdog} deadline while many other
+ * processes already have one armed.
+ *
+ * <p>Setup prints how many deadlines are armed and how many threads the JVM runs meanwhile, which
+ * stays flat no matter how many processes are watched.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WatchdogBenchmark {
+
+    @Param({"10000"})
+    int liveProcesses;
+
+    private final List<StopCheckExecuteWatchdog> live = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < liveProcesses; i++) {
+            StopCheckExecuteWatchdog watchdog = new StopCheckExecuteWatchdog(TimeUnit.HOURS.toMillis(1));
+            watchdog.start(new IdleProcess());
+            live.add(watchdog);
+        }
+        System.out.println(
+                "Armed deadlines: " + SharedScheduler.pendingTasks()
+                        + ", live JVM threads: " + ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    @TearDown
+    public void tearDown() {
+        live.forEach(StopCheckExecuteWatchdog::stop);
+        live.clear();
+    }
+
+    @Benchmark
+    public boolean armAndCancel() {
+        StopCheckExecuteWatchdog watchdog = new StopCheckExecuteWatchdog(TimeUnit.HOURS.toMillis(1));
+        watchdog.start(new IdleProcess());
+        watchdog.stop();
+        return watchdog.isStopped();
+    }
+
+    /** A process that never exits, so the watchdog has something to monitor. */
+    static final class IdleProcess extends Process {
+        @Override
+        public OutputStream getOutputStream() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            throw new InterruptedException("never exits");
+        }
+
+        @Override
+        public int exitValue() {
+            throw new IllegalThreadStateException();
+        }
+
+        @Override
+        public void destroy() {}
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.io.OutputStream;
+
+/**
+ * OutputStream which discards what is written to it, but tells the {@link
+ * StopCheckExecuteWatchdog} that the process is still producing output.
+ *
+ * @author Nikan Radan
+ */
+class ActivityTrackingOutputStream extends OutputStream {
+
+    private final StopCheckExecuteWatchdog watchDog;
+
+    ActivityTrackingOutputStream(StopCheckExecuteWatchdog watchDog) {
+        this.watchDog = watchDog;
+    }
+
+    @Override
+    public void write(int b) {
+        watchDog.outputSeen();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (len > 0) {
+            watchDog.outputSeen();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton which finds any number of literals in a stream of chars, in one pass and
+ * without ever looking back, for {@link MultiPatternConsoleOutputStream}.
+ *
+ * <p>Fed one char at a time, it reports the indexes of all the literals ending at that char,
+ * overlapping ones included. It keeps the state between chars, so a literal may be split across
+ * writes.
+ *
+ * @author Nikan Radan
+ */
+final class AhoCorasick {
+
+    private static final int[] NONE = new int[0];
+
+    // Per trie node: the chars of its children, sorted, and the nodes they lead to
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    // Per trie node: the indexes of the literals ending there, including via failure links
+    private final int[][] outputs;
+
+    private int state;
+
+    /**
+     * Builds the automaton.
+     *
+     * @param literals the literals to find, none of them empty
+     */
+    AhoCorasick(List<String> literals) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> own = new ArrayList<>();
+        children.add(new TreeMap<>());
+        own.add(new ArrayList<>());
+        for (int i = 0; i < literals.size(); i++) {
+            String literal = literals.get(i);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("literals must not be empty");
+            }
+            int node = 0;
+            for (int k = 0; k < literal.length(); k++) {
+                Integer child = children.get(node).get(literal.charAt(k));
+                if (child == null) {
+                    child = children.size();
+                    children.add(new TreeMap<>());
+                    own.add(new ArrayList<>());
+                    children.get(node).put(literal.charAt(k), child);
+                }
+                node = child;
+            }
+            own.get(node).add(i);
+        }
+
+        int nodes = children.size();
+        labels = new char[nodes][];
+        targets = new int[nodes][];
+        for (int node = 0; node < nodes; node++) {
+            TreeMap<Character, Integer> map = children.get(node);
+            labels[node] = new char[map.size()];
+            targets[node] = new int[map.size()];
+            int k = 0;
+            for (Map.Entry<Character, Integer> entry : map.entrySet()) {
+                labels[node][k] = entry.getKey();
+                targets[node][k++] = entry.getValue();
+            }
+        }
+
+        // Breadth-first, so the failure target of a node, which is shallower, is always done first
+        fail = new int[nodes];
+        outputs = new int[nodes][];
+        outputs[0] = NONE;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            outputs[child] = toArray(own.get(child), NONE);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int k = 0; k < labels[node].length; k++) {
+                char c = labels[node][k];
+                int child = targets[node][k];
+                int f = fail[node];
+                int next;
+                while ((next = child(f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = Math.max(next, 0);
+                outputs[child] = toArray(own.get(child), outputs[fail[child]]);
+                queue.add(child);
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+        if (own.isEmpty()) {
+            return inherited;
+        }
+        int[] result = Arrays.copyOf(own.stream().mapToInt(Integer::intValue).toArray(), own.size() + inherited.length);
+        System.arraycopy(inherited, 0, result, own.size(), inherited.length);
+        return result;
+    }
+
+    private int child(int node, char c) {
+        int k = Arrays.binarySearch(labels[node], c);
+        return k < 0 ? -1 : targets[node][k];
+    }
+
+    /**
+     * Feeds the next char.
+     *
+     * @param c the char
+     * @return the indexes of the literals ending with this char, longest first; must not be
+     *     modified
+     */
+    int[] accept(char c) {
+        int s = state;
+        int next;
+        while ((next = child(s, c)) < 0 && s != 0) {
+            s = fail[s];
+        }
+        state = Math.max(next, 0);
+        return outputs[state];
+    }
+
+    /** Forgets the chars fed so far. */
+    void reset() {
+        state = 0;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide logging stage for the output lines of all {@link ManagedProcess} instances built with
+ * {@link ManagedProcessBuilder#setAsyncLogging(boolean)}.
+ *
+ * <p>Stream pump threads only put the lines into one bounded queue, of {@value #CAPACITY} lines,
+ * and go back to reading the process output; a single daemon thread takes up to {@value
+ * #BATCH_SIZE} of them out of the queue at once, and logs them one by one. Batching only saves
+ * the hand-off through the queue per line; each line is still logged with a call of its own. What
+ * the pump threads do when the queue is full is up to the {@link OverflowPolicy} of the process;
+ * lines discarded are counted by the process they belong to, even when {@link
+ * OverflowPolicy#DROP_OLDEST} discards the lines of another process.
+ *
+ * <p>Each process tracks its own queued lines in a {@link Backlog}, so waiting for them to be
+ * logged doesn't wait for the lines of other processes.
+ *
+ * @author Nikan Radan
+ */
+final class AsyncLogDrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncLogDrainer.class);
+
+    static final int CAPACITY = 16384;
+    static final int BATCH_SIZE = 256;
+
+    private static final ArrayBlockingQueue<Entry> QUEUE = new ArrayBlockingQueue<>(CAPACITY);
+
+    static {
+        ThreadFactories.newThread(
+                        Executors.defaultThreadFactory(), AsyncLogDrainer::run, "ExecLogDrainer-", true)
+                .start();
+    }
+
+    private AsyncLogDrainer() {}
+
+    /**
+     * Queues a line to be logged.
+     *
+     * @param stream the stream the line was written to
+     * @param backlog tracks the queued lines of the process the stream belongs to
+     * @param line the line
+     * @param level the level to log the line at, or {@code null} to have the dispatcher of the
+     *     stream decide on the logging thread
+     * @param overflowPolicy what to do when the queue is full
+     */
+    static void enqueue(
+            SLF4jLogOutputStream stream,
+            Backlog backlog,
+            String line,
+            @Nullable Level level,
+            OverflowPolicy overflowPolicy) {
+        Entry entry = new Entry(stream, backlog, line, level);
+        backlog.queued();
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        QUEUE.put(entry);
+                        break;
+                    } catch (InterruptedException e) {
+                        // Interrupting the pump thread mustn't lose output
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            case DROP_NEWEST -> {
+                if (!QUEUE.offer(entry)) {
+                    drop(entry);
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!QUEUE.offer(entry)) {
+                    Entry oldest = QUEUE.poll();
+                    if (oldest != null) {
+                        drop(oldest);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void drop(Entry entry) {
+        entry.backlog.completed(false);
+    }
+
+    private static void run() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            QUEUE.drainTo(batch, BATCH_SIZE - 1);
+            for (Entry entry : batch) {
+                if (!entry.backlog.isAbandoned()) {
+                    try {
+                        entry.stream.log(entry.line, entry.level);
+                    } catch (RuntimeException e) {
+                        // Must not kill the logging thread, which is shared with other processes
+                        logger.warn("Could not log output line of {}", entry.stream, e);
+                    }
+                }
+                entry.backlog.completed(true);
+            }
+            batch.clear();
+        }
+    }
+
+    /** The lines of one process which were queued but not logged or discarded yet. */
+    static final class Backlog {
+        private final AtomicLong droppedLines;
+        private int pending;
+        private boolean abandoned;
+
+        /**
+         * Creates an empty {@code Backlog}.
+         *
+         * @param droppedLines counts the lines of the process which were discarded
+         */
+        Backlog(AtomicLong droppedLines) {
+            this.droppedLines = droppedLines;
+        }
+
+        private synchronized void queued() {
+            pending++;
+        }
+
+        private synchronized void completed(boolean logged) {
+            if (abandoned) {
+                // Already counted as dropped when abandoned
+                return;
+            }
+            if (!logged) {
+                droppedLines.incrementAndGet();
+            }
+            if (--pending == 0) {
+                notifyAll();
+            }
+        }
+
+        private synchronized boolean isAbandoned() {
+            return abandoned;
+        }
+
+        /**
+         * Waits until every line queued before has been logged or discarded. Lines still queued at
+         * the deadline are counted as dropped, and skipped once the logging thread gets to them.
+         *
+         * @param deadline the {@link System#nanoTime()} to give up at
+         * @return {@code false} if lines were still queued at the deadline
+         * @throws InterruptedException if interrupted while waiting
+         */
+        synchronized boolean await(long deadline) throws InterruptedException {
+            while (pending > 0 && !abandoned) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    droppedLines.addAndGet(pending);
+                    pending = 0;
+                    abandoned = true;
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        }
+    }
+
+    private static final class Entry {
+        private final SLF4jLogOutputStream stream;
+        private final Backlog backlog;
+        private final String line;
+        private final @Nullable Level level;
+
+        private Entry(SLF4jLogOutputStream stream, Backlog backlog, String line, @Nullable Level level) {
+            this.stream = stream;
+            this.backlog = backlog;
+            this.line = line;
+            this.level = level;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * OutputStream which hands what is written to it to another OutputStream on a thread of its own,
+ * through a bounded ring buffer.
+ *
+ * <p>Meant for sinks which may be slow or stall now and then, such as a log appender writing over
+ * the network: the thread writing, typically a stream pump of a {@link ManagedProcess}, only
+ * copies into the buffer, so such a sink can't fill up the pipe and freeze the process. What
+ * happens when the buffer is full is up to the {@link OverflowPolicy}; {@link #getDroppedBytes()}
+ * counts what was discarded.
+ *
+ * <p>{@link #flush()} doesn't wait either; the delegate is flushed once everything written before
+ * was delivered. Exceptions thrown by the delegate are logged and the bytes concerned are lost, as
+ * they can't be reported to the writer anymore. {@link #close()} delivers what's left and closes
+ * the delegate.
+ *
+ * <p>The delivering thread is created on the first write, and ends once everything was delivered
+ * when the stream is closed, or when a {@link ManagedProcess} using it exited. In the latter case,
+ * what the delegate didn't take within the output drain timeout of the process is discarded, so a
+ * stalled delegate can't keep the exit from being reported.
+ *
+ * @author Nikan Radan
+ */
+public class AsyncOutputStream extends OutputStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncOutputStream.class);
+    private static final int CHUNK_SIZE = 8192;
+
+    private final OutputStream delegate;
+    private final OverflowPolicy overflowPolicy;
+    private final ThreadFactory threadFactory;
+    private final byte[] ring;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition stopped = lock.newCondition();
+
+    private int head;
+    private int size;
+    private long dropped;
+    private boolean flushRequested;
+    private boolean stopping;
+    private boolean closed;
+    private @Nullable Thread drainer;
+
+    /**
+     * Creates an {@code AsyncOutputStream} delivering on a platform thread.
+     *
+     * @param delegate the stream to deliver to
+     * @param bufferSize the capacity of the buffer, in bytes
+     * @param overflowPolicy what to do when the buffer is full
+     */
+    @SuppressWarnings("unused")
+    public AsyncOutputStream(OutputStream delegate, int bufferSize, OverflowPolicy overflowPolicy) {
+        this(delegate, bufferSize, overflowPolicy, ThreadFactories.defaultFactory());
+    }
+
+    /**
+     * Creates an {@code AsyncOutputStream}.
+     *
+     * @param delegate the stream to deliver to
+     * @param bufferSize the capacity of the buffer, in bytes
+     * @param overflowPolicy what to do when the buffer is full
+     * @param threadFactory creates the delivering thread
+     */
+    public AsyncOutputStream(
+            OutputStream delegate, int bufferSize, OverflowPolicy overflowPolicy, ThreadFactory threadFactory) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be > 0");
+        }
+        this.delegate = delegate;
+        this.overflowPolicy = overflowPolicy;
+        this.threadFactory = threadFactory;
+        this.ring = new byte[bufferSize];
+    }
+
+    /**
+     * Returns the number of bytes discarded so far because the buffer was full.
+     *
+     * @return the number of dropped bytes, always {@code 0} with {@link OverflowPolicy#BLOCK}
+     */
+    public long getDroppedBytes() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            while (len > 0) {
+                int free = ring.length - size;
+                if (free == 0) {
+                    switch (overflowPolicy) {
+                        case BLOCK -> {
+                            // Interrupting the writer, usually a stream pump, mustn't lose output
+                            notFull.awaitUninterruptibly();
+                            ensureOpen();
+                            continue;
+                        }
+                        case DROP_NEWEST -> {
+                            dropped += len;
+                            return;
+                        }
+                        case DROP_OLDEST -> {
+                            int drop = Math.min(len, size);
+                            head = (head + drop) % ring.length;
+                            size -= drop;
+                            dropped += drop;
+                            free = drop;
+                        }
+                    }
+                }
+                int chunk = Math.min(len, free);
+                int tail = (head + size) % ring.length;
+                int first = Math.min(chunk, ring.length - tail);
+                System.arraycopy(b, off, ring, tail, first);
+                System.arraycopy(b, off + first, ring, 0, chunk - first);
+                size += chunk;
+                off += chunk;
+                len -= chunk;
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("AsyncOutputStream was closed");
+        }
+        if (drainer == null) {
+            Thread thread = ThreadFactories.newThread(threadFactory, this::drain, "ExecAsyncOutput-", true);
+            drainer = thread;
+            thread.start();
+        }
+    }
+
+    /** Asks for the delegate to be flushed once everything written so far was delivered. */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            flushRequested = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delivers everything written so far, then closes the delegate.
+     *
+     * @throws IOException if closing the delegate fails
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        finish(Long.MAX_VALUE);
+        delegate.close();
+    }
+
+    /**
+     * Delivers everything written so far and flushes the delegate, then lets the delivering thread
+     * end. A later write starts a new one.
+     *
+     * <p>What wasn't delivered by the deadline is discarded and counted as dropped; the delivering
+     * thread then ends as soon as the delegate returns.
+     *
+     * @param deadline the {@link System#nanoTime()} to give up at, or {@link Long#MAX_VALUE} to wait
+     *     for as long as it takes
+     * @throws InterruptedIOException if interrupted while waiting for the delivery
+     */
+    void finish(long deadline) throws InterruptedIOException {
+        lock.lock();
+        try {
+            if (drainer == null) {
+                return;
+            }
+            stopping = true;
+            notEmpty.signal();
+            while (drainer != null) {
+                if (deadline == Long.MAX_VALUE) {
+                    stopped.await();
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    logger.warn("{} didn't take the remaining output in time, {} bytes are lost", delegate, size);
+                    dropped += size;
+                    size = 0;
+                    notFull.signalAll();
+                    return;
+                }
+                stopped.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while delivering the remaining output");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        byte[] buffer = new byte[Math.min(CHUNK_SIZE, ring.length)];
+        while (true) {
+            int length;
+            boolean flush;
+            lock.lock();
+            try {
+                while (size == 0 && !flushRequested && !stopping) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                length = Math.min(size, buffer.length);
+                int first = Math.min(length, ring.length - head);
+                System.arraycopy(ring, head, buffer, 0, first);
+                System.arraycopy(ring, 0, buffer, first, length - first);
+                head = (head + length) % ring.length;
+                size -= length;
+                flush = size == 0 && (flushRequested || stopping);
+                if (flush) {
+                    flushRequested = false;
+                }
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            deliver(buffer, length, flush);
+            if (flush) {
+                lock.lock();
+                try {
+                    if (stopping && size == 0) {
+                        drainer = null;
+                        stopping = false;
+                        stopped.signalAll();
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void deliver(byte[] buffer, int length, boolean flush) {
+        try {
+            if (length > 0) {
+                delegate.write(buffer, 0, length);
+            }
+            if (flush) {
+                delegate.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not deliver output to {}, {} bytes are lost", delegate, length, e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OutputStream which keeps the raw bytes written to it, e.g. the binary STDOUT of an image or
+ * compression tool, see {@link ManagedProcessBuilder#setCaptureStdOut(boolean)}.
+ *
+ * <p>Bytes are neither split into lines nor decoded, and are kept off-heap, in a chain of pooled
+ * direct {@link ByteBuffer} segments, so capturing hundreds of MB doesn't grow (and copy) a
+ * {@code byte[]} over and over again. The captured bytes can be read as read-only {@link
+ * ByteBuffer} views, as an {@link InputStream}, or written to a channel such as a {@link
+ * java.nio.channels.FileChannel} with {@link #transferTo(WritableByteChannel)}. Each of these reads
+ * what was captured up to that point, so typically they're used once the process exited.
+ *
+ * <p>Once the captured bytes aren't needed anymore, {@link #release()} returns the segments to the
+ * pool; until then they're kept, even after {@link #close()}.
+ *
+ * @author Nikan Radan
+ */
+public class CapturedOutput extends OutputStream {
+
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private long size;
+    private boolean released;
+
+    /** Creates an empty {@code CapturedOutput}. */
+    public CapturedOutput() {}
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        writableSegment().put((byte) b);
+        size++;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuffer segment = writableSegment();
+            int chunk = Math.min(len, segment.remaining());
+            segment.put(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+            size += chunk;
+        }
+    }
+
+    private ByteBuffer writableSegment() throws IOException {
+        if (released) {
+            throw new IOException("CapturedOutput was already released");
+        }
+        if (segments.isEmpty() || !segments.get(segments.size() - 1).hasRemaining()) {
+            segments.add(DirectBufferPool.acquire());
+        }
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Returns the number of bytes captured so far.
+     *
+     * @return the number of bytes
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Returns read-only views of the segments holding the bytes captured so far, in order.
+     *
+     * <p>The views are only valid until {@link #release()}.
+     *
+     * @return the views, which together hold {@link #size()} bytes
+     */
+    public synchronized ByteBuffer[] asByteBuffers() {
+        ByteBuffer[] views = new ByteBuffer[segments.size()];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = segments.get(i).asReadOnlyBuffer().flip();
+        }
+        return views;
+    }
+
+    /**
+     * Returns a read-only buffer holding the bytes captured so far.
+     *
+     * <p>If they fit into one segment, this is a view of it, which is only valid until {@link
+     * #release()}. Otherwise, the segments are copied into a new direct buffer; prefer {@link
+     * #asByteBuffers()}, {@link #asInputStream()} or {@link #transferTo(WritableByteChannel)} for
+     * large outputs.
+     *
+     * @return the buffer
+     * @throws IllegalStateException if more than {@link Integer#MAX_VALUE} bytes were captured
+     */
+    public synchronized ByteBuffer asByteBuffer() {
+        ByteBuffer[] views = asByteBuffers();
+        if (views.length == 1) {
+            return views[0];
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException(
+                    "Captured " + size + " bytes, which don't fit into one ByteBuffer");
+        }
+        ByteBuffer copy = ByteBuffer.allocateDirect((int) size);
+        for (ByteBuffer view : views) {
+            copy.put(view);
+        }
+        return copy.flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns an {@link InputStream} reading the bytes captured so far.
+     *
+     * <p>The stream is only valid until {@link #release()}.
+     *
+     * @return the stream
+     */
+    public InputStream asInputStream() {
+        return new SegmentsInputStream(asByteBuffers());
+    }
+
+    /**
+     * Writes the bytes captured so far to the given channel, with gathering writes if it supports
+     * them, as e.g. a {@link java.nio.channels.FileChannel} does.
+     *
+     * @param target the channel to write to
+     * @return the number of bytes written
+     * @throws IOException if writing to the channel fails
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        ByteBuffer[] views = asByteBuffers();
+        long written = 0;
+        if (target instanceof GatheringByteChannel gathering) {
+            int first = 0;
+            while (first < views.length) {
+                written += gathering.write(views, first, views.length - first);
+                while (first < views.length && !views[first].hasRemaining()) {
+                    first++;
+                }
+            }
+        } else {
+            for (ByteBuffer view : views) {
+                while (view.hasRemaining()) {
+                    written += target.write(view);
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Discards the captured bytes and returns their segments to the pool. Views, streams and
+     * buffers previously obtained must not be used anymore afterwards, and nothing more can be
+     * written.
+     */
+    public synchronized void release() {
+        released = true;
+        segments.forEach(DirectBufferPool::release);
+        segments.clear();
+        size = 0;
+    }
+
+    private static final class SegmentsInputStream extends InputStream {
+        private final ByteBuffer[] views;
+        private int current;
+
+        SegmentsInputStream(ByteBuffer[] views) {
+            this.views = views;
+        }
+
+        private boolean advance() {
+            while (current < views.length && !views[current].hasRemaining()) {
+                current++;
+            }
+            return current < views.length;
+        }
+
+        @Override
+        public int read() {
+            return advance() ? views[current].get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!advance()) {
+                return -1;
+            }
+            ByteBuffer view = views[current];
+            int chunk = Math.min(len, view.remaining());
+            view.get(b, off, chunk);
+            return chunk;
+        }
+
+        @Override
+        public int available() {
+            long available = 0;
+            for (int i = current; i < views.length; i++) {
+                available += views[i].remaining();
+            }
+            return (int) Math.min(available, Integer.MAX_VALUE);
+        }
+    }
+}
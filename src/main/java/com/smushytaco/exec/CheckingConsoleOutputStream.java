@@ -18,37 +18,24 @@ package com.smushytaco.exec;
 
 import org.jspecify.annotations.Nullable;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CoderResult;
-import java.nio.charset.CodingErrorAction;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 /**
  * OutputStream which watches out for the occurrence of keywords ({@linkplain String}s).
  *
  * <p>Used to watch the console output of a {@linkplain ManagedProcess} for a matching {@linkplain String}.
+ * To watch for several {@linkplain String}s at once, see {@link MultiPatternConsoleOutputStream}.
  *
  * @author Nikan Radan
  */
-public final class CheckingConsoleOutputStream extends OutputStream {
-    private final CharsetDecoder dec;
+public final class CheckingConsoleOutputStream extends ConsoleMatchingOutputStream {
     private final @Nullable Function<String, @Nullable String> onMatchNext;
-    private final AtomicBoolean done = new AtomicBoolean(false);
 
     private String literal;
     private Kmp kmp;
 
-    private final CharBuffer cbuf = CharBuffer.allocate(4096);
-
-    private boolean pendingCR = false;
-
     /**
      * The public constructor.
      *
@@ -63,17 +50,13 @@ public final class CheckingConsoleOutputStream extends OutputStream {
             String literal,
             @Nullable Function<String, @Nullable String> onMatchNext,
             @Nullable Charset charset) {
+        super(charset);
         if (literal.isEmpty()) {
             throw new IllegalArgumentException("literal must not be empty");
         }
         this.literal = normalizeNl(literal);
         this.onMatchNext = onMatchNext;
-        this.dec =
-                (charset == null ? Charset.defaultCharset() : charset)
-                        .newDecoder()
-                        .onMalformedInput(CodingErrorAction.REPLACE)
-                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
-        this.kmp = new Kmp(this.literal);
+        this.kmp = new Kmp(toBytePattern(this.literal));
     }
 
     /**
@@ -85,111 +68,37 @@ public final class CheckingConsoleOutputStream extends OutputStream {
      * @return {@code true} if this stream has completed all searches and will ignore further input;
      *         {@code false} otherwise.
      */
-    public boolean isFinished() {
-        return done.get();
-    }
-
-    @Override
-    public synchronized void write(int b) throws IOException {
-        write(new byte[] {(byte) b}, 0, 1);
-    }
-
     @Override
-    public synchronized void write(byte[] b, int off, int len) throws IOException {
-        if (isFinished()) {
-            return;
-        }
-        if (off < 0 || len < 0 || off + len > b.length) {
-            throw new IndexOutOfBoundsException();
-        }
-
-        ByteBuffer in = ByteBuffer.wrap(b, off, len);
-        while (in.hasRemaining()) {
-            CoderResult cr = dec.decode(in, cbuf, false);
-            if (cr.isError()) {
-                cr.throwException();
-            }
-            drainBuffer();
-            if (isFinished()) {
-                return;
-            }
-        }
+    public boolean isFinished() {
+        return super.isFinished();
     }
 
     @Override
-    public synchronized void close() throws IOException {
-        if (isFinished()) {
-            return;
-        }
-        CoderResult cr = dec.decode(ByteBuffer.allocate(0), cbuf, true);
-        if (cr.isError()) {
-            cr.throwException();
-        }
-        drainBuffer();
-        cr = dec.flush(cbuf);
-        if (cr.isError()) {
-            cr.throwException();
-        }
-        drainBuffer();
-        if (pendingCR && !isFinished() && kmp.accept('\n')) {
+    void accept(char c) {
+        if (kmp.accept(c)) {
             onMatched();
         }
     }
 
-    private void drainBuffer() {
-        cbuf.flip();
-        while (!isFinished() && cbuf.hasRemaining()) {
-            char c = cbuf.get();
-            if (pendingCR) {
-                if (kmp.accept('\n')) {
-                    onMatched();
-                }
-                pendingCR = false;
-                if (c == '\n') {
-                    continue;
-                }
-            }
-            if (c == '\r') {
-                if (cbuf.hasRemaining() && cbuf.get(cbuf.position()) == '\n') {
-                    cbuf.get();
-                    if (kmp.accept('\n')) {
-                        onMatched();
-                    }
-                } else {
-                    pendingCR = true;
-                }
-                continue;
-            }
-            if (kmp.accept(c)) {
-                onMatched();
-            }
-        }
-        cbuf.clear();
-    }
-
     private void onMatched() {
         if (onMatchNext == null) {
-            done.set(true);
+            finish();
             return;
         }
         String next = onMatchNext.apply(literal);
         if (next == null) {
-            done.set(true);
+            finish();
             return;
         }
         String nextNorm = normalizeNl(next);
         if (!Objects.equals(nextNorm, this.literal)) {
             this.literal = nextNorm;
-            this.kmp = new Kmp(this.literal);
+            this.kmp = new Kmp(toBytePattern(this.literal));
         } else {
             this.kmp.reset();
         }
     }
 
-    private static String normalizeNl(String s) {
-        return s.replace("\r\n", "\n").replace("\r", "\n");
-    }
-
     private static final class Kmp {
         private final char[] p;
         private final int[] lps;
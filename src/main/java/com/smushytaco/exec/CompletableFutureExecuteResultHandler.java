@@ -43,9 +43,11 @@ class CompletableFutureExecuteResultHandler implements ExecuteResultHandler {
      */
     @Override
     public void onProcessComplete(int exitValue) {
+        owner.finishAsyncSinks();
         if (listener != null) {
             listener.onProcessComplete(exitValue);
         }
+        owner.completed(exitValue, null);
         asyncResult.complete(exitValue);
     }
 
@@ -56,9 +58,11 @@ class CompletableFutureExecuteResultHandler implements ExecuteResultHandler {
      */
     @Override
     public void onProcessFailed(ExecuteException e) {
+        owner.finishAsyncSinks();
         if (listener != null) {
             listener.onProcessFailed(e.getExitValue(), e);
         }
+        owner.completed(null, e);
         asyncResult.completeExceptionally(e);
         owner.notifyProcessHalted();
     }
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Base of the OutputStreams watching the console output of a {@linkplain ManagedProcess} for
+ * literals.
+ *
+ * <p>Turns {@code \r\n} and lone {@code \r} into {@code \n}, and hands the output one by one to
+ * {@link #accept(char)}, until {@link #finish()} is called.
+ *
+ * <p>For UTF-8, US-ASCII and ISO-8859-1, the output isn't decoded at all: subclasses search for
+ * the encoded literals, see {@link #toBytePattern(String)}, and each byte is handed over as a char
+ * of the same value. In these charsets, a literal can only be found in the bytes where it's also
+ * found in the decoded chars, as {@code \r}, {@code \n} and the bytes of any ASCII char never
+ * occur within the encoding of another char. Otherwise, or for literals these charsets can't
+ * encode, the output is decoded and the chars are handed over.
+ *
+ * @author Nikan Radan
+ */
+abstract class ConsoleMatchingOutputStream extends OutputStream {
+    private final Charset charset;
+    private final CharsetDecoder dec;
+    private final AtomicBoolean done = new AtomicBoolean(false);
+
+    private final CharBuffer cbuf = CharBuffer.allocate(4096);
+    private final byte[] single = new byte[1];
+    // The start of a char split across writes, which the decoder leaves unconsumed
+    private final ByteBuffer leftover = ByteBuffer.allocate(16);
+
+    private boolean bytes;
+    private boolean pendingCR = false;
+
+    ConsoleMatchingOutputStream(@Nullable Charset charset) {
+        this.charset = charset == null ? Charset.defaultCharset() : charset;
+        this.dec =
+                this.charset
+                        .newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes =
+                this.charset.equals(StandardCharsets.UTF_8)
+                        || this.charset.equals(StandardCharsets.US_ASCII)
+                        || this.charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns whether this output stream has finished searching.
+     *
+     * @return {@code true} if this stream has completed all searches and will ignore further input;
+     *         {@code false} otherwise.
+     */
+    public boolean isFinished() {
+        return done.get();
+    }
+
+    /** Stops searching; everything written afterwards is ignored. */
+    final void finish() {
+        done.set(true);
+    }
+
+    /**
+     * Returns what to search for to find the given literal, depending on whether bytes or chars
+     * are handed to {@link #accept(char)}.
+     *
+     * <p>When handing over bytes, this is the encoded literal, one char per byte. If the charset
+     * can't encode the literal exactly, this switches to decoding the output, for good, and returns
+     * the literal as is.
+     *
+     * @param literal the literal, with normalized newlines
+     * @return the pattern to search for
+     */
+    final String toBytePattern(String literal) {
+        if (bytes) {
+            if (literal.indexOf('\uFFFD') < 0 && charset.newEncoder().canEncode(literal)) {
+                return new String(literal.getBytes(charset), StandardCharsets.ISO_8859_1);
+            }
+            bytes = false;
+        }
+        return literal;
+    }
+
+    /**
+     * Handles the next char of the console output, or the next byte, see {@link
+     * #toBytePattern(String)}.
+     *
+     * @param c the char, never {@code \r}
+     */
+    abstract void accept(char c);
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        if (isFinished()) {
+            return;
+        }
+        if (bytes) {
+            feed((char) (b & 0xFF));
+        } else {
+            single[0] = (byte) b;
+            decode(single, 0, 1);
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        int end = off + len;
+        // accept() may switch to decoding, then the rest of the bytes is decoded
+        while (bytes && off < end && !isFinished()) {
+            feed((char) (b[off++] & 0xFF));
+        }
+        if (off < end && !isFinished()) {
+            decode(b, off, end - off);
+        }
+    }
+
+    private void decode(byte[] b, int off, int len) throws IOException {
+        // Complete a char split across writes first, byte by byte, as it's unknown how long it is
+        while (leftover.position() > 0 && len > 0) {
+            leftover.put(b[off++]);
+            len--;
+            leftover.flip();
+            decode(leftover, false);
+            leftover.compact();
+            if (isFinished()) {
+                return;
+            }
+        }
+        if (len > 0) {
+            ByteBuffer in = ByteBuffer.wrap(b, off, len);
+            decode(in, false);
+            if (!isFinished()) {
+                leftover.put(in);
+            }
+        }
+    }
+
+    private void decode(ByteBuffer in, boolean endOfInput) throws IOException {
+        while (true) {
+            CoderResult cr = dec.decode(in, cbuf, endOfInput);
+            if (cr.isError()) {
+                cr.throwException();
+            }
+            drainBuffer();
+            if (cr.isUnderflow() || isFinished()) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (isFinished()) {
+            return;
+        }
+        if (!bytes) {
+            decode(leftover.flip(), true);
+            leftover.clear();
+            CoderResult cr = dec.flush(cbuf);
+            if (cr.isError()) {
+                cr.throwException();
+            }
+            drainBuffer();
+        }
+        if (pendingCR && !isFinished()) {
+            pendingCR = false;
+            accept('\n');
+        }
+    }
+
+    private void drainBuffer() {
+        cbuf.flip();
+        while (!isFinished() && cbuf.hasRemaining()) {
+            feed(cbuf.get());
+        }
+        cbuf.clear();
+    }
+
+    private void feed(char c) {
+        if (pendingCR) {
+            pendingCR = false;
+            accept('\n');
+            if (c == '\n' || isFinished()) {
+                return;
+            }
+        }
+        if (c == '\r') {
+            pendingCR = true;
+            return;
+        }
+        accept(c);
+    }
+
+    static String normalizeNl(String s) {
+        return s.replace("\r\n", "\n").replace("\r", "\n");
+    }
+}
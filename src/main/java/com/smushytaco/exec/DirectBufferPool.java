@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide pool of fixed size direct {@link ByteBuffer} segments, used by {@link
+ * CapturedOutput}.
+ *
+ * <p>Allocating direct buffers is expensive and their memory is only freed once they're garbage
+ * collected, so released segments are kept for reuse, up to {@value #MAX_POOLED} of them. Segments
+ * released beyond that are left to the garbage collector.
+ *
+ * @author Nikan Radan
+ */
+final class DirectBufferPool {
+
+    static final int SEGMENT_SIZE = 256 * 1024;
+    static final int MAX_POOLED = 64;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    private DirectBufferPool() {}
+
+    /**
+     * Returns a cleared segment of {@value #SEGMENT_SIZE} bytes, pooled if available.
+     *
+     * @return the segment
+     */
+    static ByteBuffer acquire() {
+        ByteBuffer segment = POOL.poll();
+        if (segment == null) {
+            return ByteBuffer.allocateDirect(SEGMENT_SIZE);
+        }
+        POOLED.decrementAndGet();
+        return segment.clear();
+    }
+
+    /**
+     * Returns a segment obtained from {@link #acquire()} to the pool. It must not be used anymore
+     * afterwards, neither directly nor via views of it.
+     *
+     * @param segment the segment
+     */
+    static void release(ByteBuffer segment) {
+        if (POOLED.incrementAndGet() <= MAX_POOLED) {
+            POOL.add(segment);
+        } else {
+            POOLED.decrementAndGet();
+        }
+    }
+}
@@ -16,20 +16,123 @@
 
 package com.smushytaco.exec;
 
-import org.apache.commons.exec.DefaultExecutor;
-import org.apache.commons.exec.PumpStreamHandler;
+import org.apache.commons.exec.*;
 import org.jspecify.annotations.Nullable;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
 import java.util.function.IntPredicate;
 
 class ExtendedDefaultExecutor extends DefaultExecutor {
 
+    private final ThreadFactory threadFactory;
     private @Nullable IntPredicate exitValueChecker;
+    private ProcessBuilder.@Nullable Redirect stdOutRedirect;
+    private ProcessBuilder.@Nullable Redirect stdErrRedirect;
+    private @Nullable Process adopted;
+    private @Nullable Consumer<Process> launchListener;
 
-    ExtendedDefaultExecutor(@Nullable Path workingDirectory) {
-        super(workingDirectory, Executors.defaultThreadFactory(), new PumpStreamHandler());
+    ExtendedDefaultExecutor(@Nullable Path workingDirectory, ThreadFactory threadFactory) {
+        super(workingDirectory, threadFactory, new PumpStreamHandler());
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    protected Thread createThread(Runnable runnable, String name) {
+        return ThreadFactories.newThread(threadFactory, runnable, name, false);
+    }
+
+    void setRedirects(ProcessBuilder.@Nullable Redirect stdOutRedirect, ProcessBuilder.@Nullable Redirect stdErrRedirect) {
+        this.stdOutRedirect = stdOutRedirect;
+        this.stdErrRedirect = stdErrRedirect;
+    }
+
+    /**
+     * Makes the next launch adopt the given, already running process instead of launching one, see
+     * {@link ManagedPipeline}.
+     *
+     * @param process the process to adopt
+     */
+    void adopt(Process process) {
+        this.adopted = process;
+    }
+
+    /**
+     * Sets what is notified right after a process was launched (or adopted), before its streams are
+     * set up.
+     *
+     * @param launchListener the listener, or {@code null} for none
+     */
+    void setLaunchListener(@Nullable Consumer<Process> launchListener) {
+        this.launchListener = launchListener;
+    }
+
+    /**
+     * Returns whether the next launch adopts a process instead of launching one.
+     *
+     * @return {@code true} if a process was {@linkplain #adopt(Process) adopted}
+     */
+    boolean hasAdopted() {
+        return adopted != null;
+    }
+
+    @Override
+    protected Process launch(CommandLine command, @Nullable Map<String, String> env, @Nullable Path workingDirectory)
+            throws IOException {
+        Process process = launchOrAdopt(command, env, workingDirectory);
+        if (launchListener != null) {
+            launchListener.accept(process);
+        }
+        return process;
+    }
+
+    // Commons Exec launches via Runtime.exec(), which can't redirect to files
+    private Process launchOrAdopt(
+            CommandLine command, @Nullable Map<String, String> env, @Nullable Path workingDirectory)
+            throws IOException {
+        Process process = adopted;
+        if (process != null) {
+            adopted = null;
+            return process;
+        }
+        if (stdOutRedirect == null && stdErrRedirect == null) {
+            return super.launch(command, env, workingDirectory);
+        }
+        if (workingDirectory != null && !Files.exists(workingDirectory)) {
+            throw new IOException(workingDirectory + " doesn't exist.");
+        }
+        return processBuilder(command, env).start();
+    }
+
+    /**
+     * Creates a {@link ProcessBuilder} equivalent to how this executor launches the command.
+     *
+     * @param command the command
+     * @param env the environment of the process, or {@code null} to inherit the one of the JVM
+     * @return the process builder
+     */
+    ProcessBuilder processBuilder(CommandLine command, @Nullable Map<String, String> env) {
+        ProcessBuilder processBuilder = new ProcessBuilder(command.toStrings());
+        if (env != null) {
+            processBuilder.environment().clear();
+            processBuilder.environment().putAll(env);
+        }
+        Path workingDirectory = getWorkingDirectoryPath();
+        if (workingDirectory != null) {
+            processBuilder.directory(workingDirectory.toFile());
+        }
+        if (stdOutRedirect != null) {
+            processBuilder.redirectOutput(stdOutRedirect);
+        }
+        if (stdErrRedirect != null) {
+            processBuilder.redirectError(stdErrRedirect);
+        }
+        return processBuilder;
     }
 
     void setIsSuccessExitValueChecker(@Nullable IntPredicate exitValueChecker) {
@@ -44,4 +147,120 @@ class ExtendedDefaultExecutor extends DefaultExecutor {
             return !exitValueChecker.test(exitValue);
         }
     }
+
+    /**
+     * Like {@link #execute(CommandLine, Map, ExecuteResultHandler)}, but without a thread blocking
+     * in {@link Process#waitFor()} for the whole lifetime of the process.
+     *
+     * <p>The process is launched on the calling thread, and the {@code handler} is notified via
+     * {@link Process#onExit()}, i.e. by the JDK's process reaper, which watches every child process
+     * anyway. Only the short cleanup after the exit (draining the stream pumps, checking the exit
+     * value, notifying the {@code handler}) runs on a fresh thread from the thread factory, so that
+     * neither the reaper nor its small stack ever runs listener code.
+     *
+     * @param command the command to execute
+     * @param environment the environment of the process
+     * @param handler notified once the process completed or failed, including failing to launch
+     * @throws ExecuteException if the working directory doesn't exist
+     */
+    void executeWithExitNotification(
+            CommandLine command, Map<String, String> environment, ExecuteResultHandler handler)
+            throws ExecuteException {
+        Path workingDirectory = getWorkingDirectoryPath();
+        if (workingDirectory != null && !Files.exists(workingDirectory)) {
+            throw new ExecuteException(
+                    "Working directory " + workingDirectory.toAbsolutePath() + " doesn't exist.",
+                    INVALID_EXITVALUE);
+        }
+        ExecuteWatchdog watchdog = getWatchdog();
+        ExecuteStreamHandler streams = getStreamHandler();
+        ProcessDestroyer processDestroyer = getProcessDestroyer();
+
+        Process process;
+        try {
+            process = launch(command, environment, workingDirectory);
+        } catch (IOException e) {
+            if (watchdog != null) {
+                watchdog.failedToStart(e);
+            }
+            handler.onProcessFailed(new ExecuteException("Execution failed", INVALID_EXITVALUE, e));
+            return;
+        }
+        try {
+            streams.setProcessInputStream(process.getOutputStream());
+            streams.setProcessOutputStream(process.getInputStream());
+            streams.setProcessErrorStream(process.getErrorStream());
+            streams.start();
+        } catch (IOException e) {
+            process.destroy();
+            if (watchdog != null) {
+                watchdog.failedToStart(e);
+            }
+            handler.onProcessFailed(new ExecuteException("Execution failed", INVALID_EXITVALUE, e));
+            return;
+        }
+        if (processDestroyer != null) {
+            processDestroyer.add(process);
+        }
+        if (watchdog != null) {
+            watchdog.start(process);
+        }
+        process.onExit()
+                .thenRunAsync(
+                        () -> completeExecution(process, streams, watchdog, processDestroyer, handler),
+                        runnable -> createThread(runnable, "ExecExitNotification").start());
+    }
+
+    private void completeExecution(
+            Process process,
+            ExecuteStreamHandler streams,
+            @Nullable ExecuteWatchdog watchdog,
+            @Nullable ProcessDestroyer processDestroyer,
+            ExecuteResultHandler handler) {
+        int exitValue = process.exitValue();
+        ExecuteException failure = null;
+        try {
+            if (watchdog != null) {
+                watchdog.stop();
+            }
+            IOException caught = null;
+            try {
+                streams.stop();
+            } catch (IOException e) {
+                caught = e;
+            }
+            caught = close(process.getInputStream(), caught);
+            caught = close(process.getOutputStream(), caught);
+            caught = close(process.getErrorStream(), caught);
+            if (caught != null) {
+                throw caught;
+            }
+            if (watchdog != null) {
+                watchdog.checkException();
+            }
+            if (isFailure(exitValue)) {
+                failure = new ExecuteException("Process exited with an error: " + exitValue, exitValue);
+            }
+        } catch (Exception e) {
+            failure = new ExecuteException("Execution failed", exitValue, e);
+        } finally {
+            if (processDestroyer != null) {
+                processDestroyer.remove(process);
+            }
+        }
+        if (failure != null) {
+            handler.onProcessFailed(failure);
+        } else {
+            handler.onProcessComplete(exitValue);
+        }
+    }
+
+    private static @Nullable IOException close(Closeable closeable, @Nullable IOException caught) {
+        try {
+            closeable.close();
+            return caught;
+        } catch (IOException e) {
+            return e;
+        }
+    }
 }
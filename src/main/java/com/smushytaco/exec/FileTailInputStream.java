@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * InputStream which reads a file that another process is still writing, from a given position on.
+ *
+ * <p>Reads are positional, so they never block waiting for more data: once the reader caught up
+ * with the writer, {@link #available()} is {@code 0} and {@link #read()} returns {@code -1}, until
+ * more is written. That makes it suitable for the {@link StreamMultiplexer}, which polls {@link
+ * #available()}, and whose final drain then stops at the current end of the file.
+ *
+ * @author Nikan Radan
+ */
+class FileTailInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private long position;
+
+    FileTailInputStream(Path file, long position) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.position = position;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int read = channel.read(ByteBuffer.wrap(b, off, len), position);
+        if (read <= 0) {
+            return -1;
+        }
+        position += read;
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Math.max(channel.size() - position, 0), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.io.OutputStream;
+
+/**
+ * OutputStream which runs a callback when the first byte is written to it, and discards
+ * everything written.
+ *
+ * @author Nikan Radan
+ */
+class FirstByteOutputStream extends OutputStream {
+
+    private final Runnable onFirstByte;
+    private volatile boolean seen;
+
+    FirstByteOutputStream(Runnable onFirstByte) {
+        this.onFirstByte = onFirstByte;
+    }
+
+    @Override
+    public void write(int b) {
+        firstByte();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (len > 0) {
+            firstByte();
+        }
+    }
+
+    private void firstByte() {
+        if (!seen) {
+            seen = true;
+            onFirstByte.run();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.apache.commons.exec.CommandLine;
+import org.jspecify.annotations.Nullable;
+
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JDK Flight Recorder events about {@link ManagedProcess}es, so their activity lines up with GC,
+ * safepoints and thread parking in a recording. They're in the {@value #CATEGORY} category, and
+ * named {@code com.smushytaco.exec.*}.
+ *
+ * <p>Events are only created when enabled in a running recording, so there's next to no cost
+ * otherwise. {@link StreamActivity} is only emitted for processes started while it was enabled, as
+ * their streams are only counted then.
+ *
+ * @author Nikan Radan
+ */
+final class JfrEvents {
+
+    static final String CATEGORY = "Exec";
+
+    private static final Set<Activity> LIVE = ConcurrentHashMap.newKeySet();
+
+    static {
+        FlightRecorder.addPeriodicEvent(StreamActivity.class, JfrEvents::emitStreamActivity);
+    }
+
+    private JfrEvents() {}
+
+    @Name("com.smushytaco.exec.ProcessSpawn")
+    @Label("Process Spawn")
+    @Category(CATEGORY)
+    @Description("Launching a process, from handing it to the executor until the OS process was created")
+    static final class Spawn extends Event {
+        @Label("PID")
+        long pid;
+
+        @Label("Command")
+        @Nullable String command;
+    }
+
+    @Name("com.smushytaco.exec.StreamsStarted")
+    @Label("Process Streams Started")
+    @Category(CATEGORY)
+    @Description("The STDOUT and STDERR of a process are being pumped")
+    @StackTrace(false)
+    static final class StreamsStarted extends Event {
+        @Label("PID")
+        long pid;
+
+        @Label("Since Starting")
+        @Timespan
+        long sinceStarting;
+    }
+
+    @Name("com.smushytaco.exec.ProcessReady")
+    @Label("Process Ready")
+    @Category(CATEGORY)
+    @Description("A process was seen ready, e.g. it printed the console message waited for")
+    @StackTrace(false)
+    static final class Ready extends Event {
+        @Label("PID")
+        long pid;
+
+        @Label("Since Starting")
+        @Timespan
+        long sinceStarting;
+    }
+
+    @Name("com.smushytaco.exec.WatchdogKill")
+    @Label("Process Killed by Watchdog")
+    @Category(CATEGORY)
+    @Description("The watchdog destroyed a process, as it exceeded its timeout, or went without output for too long")
+    @StackTrace(false)
+    static final class WatchdogKill extends Event {
+        @Label("PID")
+        long pid;
+
+        @Label("Reason")
+        @Nullable String reason;
+
+        @Label("Timeout")
+        @Timespan(Timespan.MILLISECONDS)
+        long timeout;
+    }
+
+    @Name("com.smushytaco.exec.ProcessDestroy")
+    @Label("Process Destroy")
+    @Category(CATEGORY)
+    @Description("Destroying a process, until it exited")
+    static final class Destroy extends Event {
+        @Label("PID")
+        long pid;
+    }
+
+    @Name("com.smushytaco.exec.ProcessExit")
+    @Label("Process Exit")
+    @Category(CATEGORY)
+    @Description("A process exited, and everything it wrote was pumped")
+    @StackTrace(false)
+    static final class Exit extends Event {
+        @Label("PID")
+        long pid;
+
+        @Label("Exit Value")
+        int exitValue;
+
+        @Label("Failed")
+        boolean failed;
+
+        @Label("Since Starting")
+        @Timespan
+        long sinceStarting;
+    }
+
+    @Name("com.smushytaco.exec.StreamActivity")
+    @Label("Process Stream Activity")
+    @Category(CATEGORY)
+    @Description("Bytes and lines pumped from the STDOUT and STDERR of a running process so far")
+    @Period("5 s")
+    @StackTrace(false)
+    static final class StreamActivity extends Event {
+        @Label("PID")
+        long pid;
+
+        @Label("STDOUT Bytes")
+        @DataAmount
+        long stdoutBytes;
+
+        @Label("STDOUT Lines")
+        long stdoutLines;
+
+        @Label("STDERR Bytes")
+        @DataAmount
+        long stderrBytes;
+
+        @Label("STDERR Lines")
+        long stderrLines;
+    }
+
+    /**
+     * Begins a {@link Spawn} event, if enabled.
+     *
+     * @return the event, to be passed to {@link #endSpawn(Spawn, long, CommandLine)}, or {@code
+     *     null}
+     */
+    static @Nullable Spawn beginSpawn() {
+        Spawn event = new Spawn();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endSpawn(@Nullable Spawn event, long pid, CommandLine command) {
+        if (event != null && event.shouldCommit()) {
+            event.pid = pid;
+            event.command = command.toString();
+            event.commit();
+        }
+    }
+
+    static void streamsStarted(long pid, long sinceStartingNanos) {
+        StreamsStarted event = new StreamsStarted();
+        if (event.shouldCommit()) {
+            event.pid = pid;
+            event.sinceStarting = sinceStartingNanos;
+            event.commit();
+        }
+    }
+
+    static void ready(long pid, long sinceStartingNanos) {
+        Ready event = new Ready();
+        if (event.shouldCommit()) {
+            event.pid = pid;
+            event.sinceStarting = sinceStartingNanos;
+            event.commit();
+        }
+    }
+
+    static void watchdogKill(long pid, String reason, long timeoutMs) {
+        WatchdogKill event = new WatchdogKill();
+        if (event.shouldCommit()) {
+            event.pid = pid;
+            event.reason = reason;
+            event.timeout = timeoutMs;
+            event.commit();
+        }
+    }
+
+    /**
+     * Begins a {@link Destroy} event, if enabled.
+     *
+     * @return the event, to be passed to {@link #endDestroy(Destroy)}, or {@code null}
+     */
+    static @Nullable Destroy beginDestroy(long pid) {
+        Destroy event = new Destroy();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.pid = pid;
+        event.begin();
+        return event;
+    }
+
+    static void endDestroy(@Nullable Destroy event) {
+        if (event != null && event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+    static void exit(long pid, int exitValue, boolean failed, long sinceStartingNanos) {
+        Exit event = new Exit();
+        if (event.shouldCommit()) {
+            event.pid = pid;
+            event.exitValue = exitValue;
+            event.failed = failed;
+            event.sinceStarting = sinceStartingNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts counting what a process writes, if {@link StreamActivity} is enabled.
+     *
+     * @return the counters, to be added to the STDOUT and STDERR of the process, and {@link
+     *     #untrack(Activity) untracked} once it exited, or {@code null}
+     */
+    static @Nullable Activity track() {
+        if (!new StreamActivity().isEnabled()) {
+            return null;
+        }
+        Activity activity = new Activity();
+        LIVE.add(activity);
+        return activity;
+    }
+
+    static void untrack(@Nullable Activity activity) {
+        if (activity != null) {
+            LIVE.remove(activity);
+        }
+    }
+
+    private static void emitStreamActivity() {
+        for (Activity activity : LIVE) {
+            StreamActivity event = new StreamActivity();
+            event.pid = activity.pid;
+            event.stdoutBytes = activity.stdout.bytes;
+            event.stdoutLines = activity.stdout.lines;
+            event.stderrBytes = activity.stderr.bytes;
+            event.stderrLines = activity.stderr.lines;
+            event.commit();
+        }
+    }
+
+    /** What a process wrote so far. */
+    static final class Activity {
+        volatile long pid = -1;
+        final CountingOutputStream stdout = new CountingOutputStream();
+        final CountingOutputStream stderr = new CountingOutputStream();
+    }
+
+    /** Counts bytes and lines written to it by a single thread, and discards them. */
+    static final class CountingOutputStream extends OutputStream {
+        volatile long bytes;
+        volatile long lines;
+
+        @Override
+        @SuppressWarnings("NonAtomicOperationOnVolatileField")
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("NonAtomicOperationOnVolatileField")
+        public void write(byte[] b, int off, int len) {
+            int newlines = 0;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    newlines++;
+                }
+            }
+            bytes += len;
+            lines += newlines;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * {@link LifecycleMetrics} which aggregates the time from {@link LifecyclePhase#STARTING} to
+ * each later phase into a {@link LatencyHistogram} per phase, over all processes it was {@linkplain
+ * ManagedProcessBuilder#setLifecycleMetrics(LifecycleMetrics) set} on.
+ *
+ * @author Nikan Radan
+ */
+public class LatencyHistograms implements LifecycleMetrics {
+
+    private final Map<LifecyclePhase, LatencyHistogram> histograms = new EnumMap<>(LifecyclePhase.class);
+
+    /** Creates empty histograms. */
+    public LatencyHistograms() {
+        for (LifecyclePhase phase : LifecyclePhase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public void phaseReached(ManagedProcess process, LifecyclePhase phase, long nanosSinceStarting) {
+        histograms.get(phase).record(nanosSinceStarting);
+    }
+
+    /**
+     * Returns the histogram of the time it took processes from {@link LifecyclePhase#STARTING} to
+     * the given phase.
+     *
+     * @param phase the phase
+     * @return the histogram, which is empty for {@link LifecyclePhase#BUILT}
+     */
+    public LatencyHistogram getHistogram(LifecyclePhase phase) {
+        return histograms.get(phase);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("LatencyHistograms");
+        for (Map.Entry<LifecyclePhase, LatencyHistogram> entry : histograms.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                sb.append("\n  ").append(entry.getKey()).append(": ").append(entry.getValue());
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+/**
+ * Receives the {@link LifecyclePhase}s processes go through, e.g. to record them in a metrics
+ * library, see {@link ManagedProcessBuilder#setLifecycleMetrics(LifecycleMetrics)}.
+ *
+ * <p>{@link LatencyHistograms} aggregates them without any dependencies.
+ *
+ * @author Nikan Radan
+ */
+public interface LifecycleMetrics {
+
+    /**
+     * Called once a started process reached a phase, for every phase from {@link
+     * LifecyclePhase#STARTING} on.
+     *
+     * <p>Called on whichever thread noticed the phase, such as a stream pump thread, so it must
+     * return quickly. Exceptions are logged and otherwise ignored.
+     *
+     * @param process the process
+     * @param phase the phase reached
+     * @param nanosSinceStarting the time since the process reached {@link LifecyclePhase#STARTING},
+     *     in nanoseconds
+     */
+    void phaseReached(ManagedProcess process, LifecyclePhase phase, long nanosSinceStarting);
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+/**
+ * Points in the life of a {@link ManagedProcess}, in the order they're usually reached, see
+ * {@link ManagedProcess#getPhaseNanos(LifecyclePhase)}.
+ *
+ * <p>Together they tell where the time of a slow start goes: waiting to be admitted ({@link
+ * #STARTING} to {@link #LAUNCHING}), forking ({@link #LAUNCHING} to {@link #LAUNCHED}), Commons
+ * Exec's stream setup ({@link #LAUNCHED} to {@link #STREAMS_STARTED}), or the child itself
+ * ({@link #LAUNCHED} to {@link #FIRST_OUTPUT} or {@link #READY}).
+ */
+public enum LifecyclePhase {
+    /** The process was built by {@link ManagedProcessBuilder#build()}. */
+    BUILT,
+    /** A start method was called, and preparing the launch began. */
+    STARTING,
+    /** The launch was admitted by the spawn scheduler, if any, and is handed to the executor. */
+    LAUNCHING,
+    /** The OS process was created. */
+    LAUNCHED,
+    /** The STDOUT and STDERR of the process are being pumped. */
+    STREAMS_STARTED,
+    /** The first byte of STDOUT was read. */
+    FIRST_OUTPUT,
+    /** A start method waiting for the process to be ready saw it ready. */
+    READY,
+    /** The OS process exited. */
+    EXITED,
+    /**
+     * Everything the process wrote was pumped, its exit value checked and its listener notified,
+     * so waiting for its exit returns.
+     */
+    COMPLETED
+}
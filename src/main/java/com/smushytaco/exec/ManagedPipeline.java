@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pipeline of {@link ManagedProcess}es, like {@code a | b | c} in a shell.
+ *
+ * <p>The stages are launched together with {@link ProcessBuilder#startPipeline(List)}, so the
+ * STDOUT of each stage is connected to the STDIN of the next one by the OS, and the data flowing
+ * between them never passes through the JVM. Each stage is still a {@link ManagedProcess} with the
+ * listener, exit value checker, timeouts etc. of the {@link ManagedProcessBuilder} it was built
+ * from; its STDERR is logged and kept in its console as usual. Only the STDIN of the first and the
+ * STDOUT of the last stage are handled like those of a standalone {@link ManagedProcess}.
+ *
+ * @author Nikan Radan
+ */
+public class ManagedPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManagedPipeline.class);
+
+    private final List<ManagedProcess> stages;
+
+    /**
+     * Creates a pipeline from the given stages, in order.
+     *
+     * @param stages the builders of the stages; only the first may have an input stream, and all
+     *     but the last must not redirect their STDOUT
+     * @throws ManagedProcessException if there are no stages, or a stage other than the first one
+     *     has an input stream
+     */
+    public ManagedPipeline(ManagedProcessBuilder... stages) throws ManagedProcessException {
+        if (stages.length == 0) {
+            throw new ManagedProcessException("A pipeline needs at least one stage");
+        }
+        List<ManagedProcess> processes = new ArrayList<>(stages.length);
+        for (int i = 0; i < stages.length; i++) {
+            ManagedProcess process = stages[i].build();
+            if (i > 0 && process.hasInput()) {
+                throw new ManagedProcessException(
+                        "Stage " + i + " of a pipeline reads the output of the previous stage, and can't"
+                                + " have an input stream: " + stages[i]);
+            }
+            processes.add(process);
+        }
+        this.stages = List.copyOf(processes);
+    }
+
+    /**
+     * Returns the stages of this pipeline, in order.
+     *
+     * @return the stages
+     */
+    public List<ManagedProcess> getStages() {
+        return stages;
+    }
+
+    /**
+     * Starts all stages of the pipeline.
+     *
+     * <p>This method always immediately returns (i.e. launches the processes asynchronously). Use
+     * {@link #waitForExit()} if you want to "block" on the pipeline.
+     *
+     * @return The current instance.
+     * @throws ManagedProcessException if the pipeline could not be started, in which case stages
+     *     which were already launched are destroyed
+     * @throws ManagedProcessInterruptedException if interrupted while waiting
+     */
+    public synchronized ManagedPipeline start()
+            throws ManagedProcessException, ManagedProcessInterruptedException {
+        List<ProcessBuilder> builders = new ArrayList<>(stages.size());
+        for (ManagedProcess stage : stages) {
+            builders.add(stage.newProcessBuilder());
+        }
+        List<Process> processes;
+        try {
+            processes = ProcessBuilder.startPipeline(builders);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ManagedProcessException("Launch failed: " + this, e);
+        }
+        int started = 0;
+        try {
+            for (; started < stages.size(); started++) {
+                ManagedProcess stage = stages.get(started);
+                stage.adopt(processes.get(started));
+                stage.start();
+            }
+        } finally {
+            if (started < stages.size()) {
+                logger.warn("Starting {} failed, destroying it", this);
+                processes.forEach(Process::destroy);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Waits (blocks) until all stages of the pipeline exited.
+     *
+     * @return the exit value of the last stage
+     * @throws ManagedProcessException if the pipeline was never started, or any stage failed
+     * @throws ManagedProcessInterruptedException if interrupted while waiting
+     */
+    public int waitForExit() throws ManagedProcessException, ManagedProcessInterruptedException {
+        int exitValue = 0;
+        for (ManagedProcess stage : stages) {
+            exitValue = stage.waitForExit();
+        }
+        return exitValue;
+    }
+
+    /**
+     * Returns whether any stage of the pipeline is still running.
+     *
+     * @return {@code true} if any stage is alive
+     */
+    public boolean isAlive() {
+        return stages.stream().anyMatch(ManagedProcess::isAlive);
+    }
+
+    /**
+     * Kills all stages of the pipeline which are still running.
+     *
+     * @throws ManagedProcessException if the pipeline isn't running anymore (or was never started)
+     * @throws ManagedProcessInterruptedException if interrupted while waiting
+     */
+    public void destroy() throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (!isAlive()) {
+            throw new ManagedProcessException(this + " was already stopped (or never started)");
+        }
+        for (ManagedProcess stage : stages) {
+            if (stage.isAlive()) {
+                stage.destroy();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Pipeline");
+        for (int i = 0; i < stages.size(); i++) {
+            sb.append(i == 0 ? " " : " | ").append(stages.get(i).getExecutablePath());
+        }
+        return sb.toString();
+    }
+}
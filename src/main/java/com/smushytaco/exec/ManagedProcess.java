@@ -25,12 +25,22 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
 
 import static com.smushytaco.exec.OutputStreamType.STDERR;
 import static com.smushytaco.exec.OutputStreamType.STDOUT;
@@ -40,8 +50,8 @@ import static com.smushytaco.exec.OutputStreamType.STDOUT;
  * ManagedProcessBuilder#build()}.
  *
  * <p>Intended for controlling external "tools", often "daemons", which produce some text-based
- * control output. In this form not yet suitable for programs returning binary data via stdout (but
- * could be extended).
+ * control output. Programs returning binary data via stdout can be run with {@link
+ * ManagedProcessBuilder#setCaptureStdOut(boolean)}, see {@link #getCapturedStdOut()}.
  *
  * <p>Does reasonably extensive logging about what it's doing (contrary to Apache Commons Exec),
  * including logging the processes stdout &amp; stderr, into SLF4J (not the System.out.Console).
@@ -73,8 +83,7 @@ public class ManagedProcess implements ManagedProcessState {
 
     private final CommandLine commandLine;
     private final ExtendedDefaultExecutor executor;
-    private final StopCheckExecuteWatchdog watchDog =
-            new StopCheckExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT);
+    private final StopCheckExecuteWatchdog watchDog;
     private final ProcessDestroyer shutdownHookProcessDestroyer =
             new LoggingShutdownHookProcessDestroyer();
     private final Map<String, String> environment;
@@ -86,11 +95,44 @@ public class ManagedProcess implements ManagedProcessState {
     private final @Nullable ManagedProcessListener listener;
     private final MultiOutputStream stdout;
     private final MultiOutputStream stderr;
+    private final ThreadFactory threadFactory;
+    private final boolean asyncExitNotification;
+    private final boolean multiplexedStreamPumps;
+    private final boolean captureStdOut;
+    private final ProcessBuilder.@Nullable Redirect stdOutRedirect;
+    private final ProcessBuilder.@Nullable Redirect stdErrRedirect;
+    private final int asyncSinkBufferSize;
+    private final OverflowPolicy asyncSinkOverflowPolicy;
+    private final long outputDrainTimeoutMs;
+    private final List<AsyncOutputStream> asyncSinks = new CopyOnWriteArrayList<>();
+    private final @Nullable OverflowPolicy asyncLoggingOverflowPolicy;
+    private final boolean dispatchOnLoggingThread;
+    private final AtomicLong droppedLogLines = new AtomicLong();
+    private final AsyncLogDrainer.Backlog logBacklog = new AsyncLogDrainer.Backlog(droppedLogLines);
+    private final List<ReadinessProbe> readinessProbes;
+    private final @Nullable String notifySocketVariable;
+    private final @Nullable SpawnScheduler spawnScheduler;
+    private final int spawnPriority;
+    private final @Nullable LifecycleMetrics lifecycleMetrics;
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(LifecyclePhase.values().length);
+    private final @Nullable ProcessSampler processSampler;
+    private volatile long pid = -1;
+    private volatile @Nullable ProcessHandle processHandle;
+    private volatile @Nullable ResourceSamples resourceSamples;
+    private volatile JfrEvents.@Nullable Spawn spawnEvent;
+    private volatile JfrEvents.@Nullable Activity streamActivity;
+    private volatile @Nullable NotifySocket notifySocket;
+    private volatile CompletableFuture<@Nullable Void> notifyReady = new CompletableFuture<>();
+    private volatile @Nullable String notifyStatus;
 
-    private final CountDownLatch streamsStarted = new CountDownLatch(1);
+    private volatile CompletableFuture<@Nullable Void> streamsStarted = new CompletableFuture<>();
+    private volatile CompletableFuture<@Nullable Void> launched = new CompletableFuture<>();
+    // Whether a launch wasn't handed to the executor yet; whoever resets it launches or gives up
+    private final AtomicBoolean launchPending = new AtomicBoolean();
     private volatile boolean started = false;
     private @Nullable String procShortName;
     private @Nullable RollingLogOutputStream console;
+    private volatile @Nullable CapturedOutput capturedStdOut;
 
     /**
      * Package local constructor.
@@ -110,6 +152,36 @@ public class ManagedProcess implements ManagedProcessState {
      * @param stdErrs StandardError from the console
      * @param listener A <tt>ManagedProcessListener</tt> which is notified when process completes or
      *     fails
+     * @param exitValueChecker decides whether an exit value represents success
+     * @param threadFactory creates the executor and stream pump threads
+     * @param timeoutMs wall-clock deadline in milliseconds, or non-positive for none
+     * @param idleOutputTimeoutMs deadline in milliseconds without any output, or non-positive for
+     *     none
+     * @param asyncExitNotification whether the exit is noticed via {@link Process#onExit()} instead
+     *     of a thread blocking in {@link Process#waitFor()}
+     * @param multiplexedStreamPumps whether STDOUT and STDERR are copied by the pump threads shared
+     *     by all processes instead of two threads of this process' own
+     * @param captureStdOut whether STDOUT is captured as raw bytes instead of logged and kept as
+     *     console lines
+     * @param stdOutRedirect file STDOUT is written to by the OS, or null to pipe it
+     * @param stdErrRedirect file STDERR is written to by the OS, or null to pipe it
+     * @param asyncSinkBufferSize buffer size in bytes of each asynchronously fed output sink, or
+     *     non-positive to feed them on the stream pump threads
+     * @param asyncSinkOverflowPolicy what asynchronously fed output sinks do when their buffer is
+     *     full
+     * @param outputDrainTimeoutMs how long delivering the buffered output may delay reporting the
+     *     exit, in milliseconds
+     * @param asyncLoggingOverflowPolicy what to do when the queue of the shared logging thread is
+     *     full, or null to log on the stream pump threads
+     * @param dispatchOnLoggingThread whether the log dispatcher is called on the shared logging
+     *     thread
+     * @param readinessProbes probes which tell whether the process is ready
+     * @param notifySocketVariable environment variable passing the path of the notify socket to
+     *     the process, or null for none
+     * @param spawnScheduler admission control for launching the process, or null for none
+     * @param spawnPriority priority of launching the process with the spawn scheduler
+     * @param lifecycleMetrics receives the phases the process goes through, or null for none
+     * @param processSampler samples the resource usage of the process, or null for none
      */
     ManagedProcess(
             CommandLine commandLine,
@@ -122,13 +194,69 @@ public class ManagedProcess implements ManagedProcessState {
             List<OutputStream> stdOuts,
             List<OutputStream> stdErrs,
             @Nullable ManagedProcessListener listener,
-            IntPredicate exitValueChecker) {
+            IntPredicate exitValueChecker,
+            ThreadFactory threadFactory,
+            long timeoutMs,
+            long idleOutputTimeoutMs,
+            boolean asyncExitNotification,
+            boolean multiplexedStreamPumps,
+            boolean captureStdOut,
+            ProcessBuilder.@Nullable Redirect stdOutRedirect,
+            ProcessBuilder.@Nullable Redirect stdErrRedirect,
+            int asyncSinkBufferSize,
+            OverflowPolicy asyncSinkOverflowPolicy,
+            long outputDrainTimeoutMs,
+            @Nullable OverflowPolicy asyncLoggingOverflowPolicy,
+            boolean dispatchOnLoggingThread,
+            List<ReadinessProbe> readinessProbes,
+            @Nullable String notifySocketVariable,
+            @Nullable SpawnScheduler spawnScheduler,
+            int spawnPriority,
+            @Nullable LifecycleMetrics lifecycleMetrics,
+            @Nullable ProcessSampler processSampler) {
         this.commandLine = commandLine;
         this.environment = environment;
         this.input = input != null ? IOUtils.buffer(input) : null;
-        executor = new ExtendedDefaultExecutor(directory);
+        this.threadFactory = threadFactory;
+        this.asyncExitNotification = asyncExitNotification;
+        this.multiplexedStreamPumps = multiplexedStreamPumps;
+        this.captureStdOut = captureStdOut;
+        this.stdOutRedirect = stdOutRedirect;
+        this.stdErrRedirect = stdErrRedirect;
+        this.asyncSinkBufferSize = asyncSinkBufferSize;
+        this.asyncSinkOverflowPolicy = asyncSinkOverflowPolicy;
+        this.outputDrainTimeoutMs = outputDrainTimeoutMs;
+        this.asyncLoggingOverflowPolicy = asyncLoggingOverflowPolicy;
+        this.dispatchOnLoggingThread = dispatchOnLoggingThread;
+        this.readinessProbes = readinessProbes;
+        this.notifySocketVariable = notifySocketVariable;
+        this.spawnScheduler = spawnScheduler;
+        this.spawnPriority = spawnPriority;
+        this.lifecycleMetrics = lifecycleMetrics;
+        this.processSampler = processSampler;
+        reached(LifecyclePhase.BUILT);
+        watchDog =
+                new StopCheckExecuteWatchdog(
+                        timeoutMs > 0 ? timeoutMs : ExecuteWatchdog.INFINITE_TIMEOUT,
+                        idleOutputTimeoutMs > 0 ? idleOutputTimeoutMs : ExecuteWatchdog.INFINITE_TIMEOUT);
+        executor = new ExtendedDefaultExecutor(directory, threadFactory);
         executor.setWatchdog(watchDog);
         executor.setIsSuccessExitValueChecker(exitValueChecker);
+        executor.setRedirects(stdOutRedirect, stdErrRedirect);
+        executor.setLaunchListener(
+                process -> {
+                    pid = process.pid();
+                    processHandle = process.toHandle();
+                    if (processSampler != null) {
+                        resourceSamples = processSampler.register(pid);
+                    }
+                    JfrEvents.Activity activity = streamActivity;
+                    if (activity != null) {
+                        activity.pid = pid;
+                    }
+                    reached(LifecyclePhase.LAUNCHED);
+                    process.onExit().thenRun(() -> reached(LifecyclePhase.EXITED));
+                });
         this.destroyOnShutdown = destroyOnShutdown;
         this.consoleBufferMaxLines = consoleBufferMaxLines;
         this.outputStreamLogDispatcher = outputStreamLogDispatcher;
@@ -138,12 +266,19 @@ public class ManagedProcess implements ManagedProcessState {
         this.stdout = new MultiOutputStream();
         this.stderr = new MultiOutputStream();
         for (OutputStream stdOut : stdOuts) {
-            stdout.addOutputStream(stdOut);
+            stdout.addOutputStream(sink(stdOut));
         }
 
         for (OutputStream stdErr : stdErrs) {
-            stderr.addOutputStream(stdErr);
+            stderr.addOutputStream(sink(stdErr));
         }
+
+        if (idleOutputTimeoutMs > 0) {
+            OutputStream activity = new ActivityTrackingOutputStream(watchDog);
+            stdout.addOutputStream(activity);
+            stderr.addOutputStream(activity);
+        }
+        stdout.addOutputStream(new FirstByteOutputStream(() -> reached(LifecyclePhase.FIRST_OUTPUT)));
     }
 
     /**
@@ -183,28 +318,185 @@ public class ManagedProcess implements ManagedProcessState {
         if (logger.isInfoEnabled()) {
             logger.info("Starting {}", getProcLongName());
         }
+        reached(LifecyclePhase.STARTING);
 
-        PumpStreamHandler outputHandler =
-                new StartSignalingPumpStreamHandler(stdout, stderr, input, streamsStarted);
+        CompletableFuture<@Nullable Void> streams = new CompletableFuture<>();
+        streamsStarted = streams;
+        streams.thenRun(() -> reached(LifecyclePhase.STREAMS_STARTED));
+        JfrEvents.Activity activity = JfrEvents.track();
+        if (activity != null) {
+            stdout.addOutputStream(activity.stdout);
+            stderr.addOutputStream(activity.stderr);
+            streamActivity = activity;
+        }
+        ExecuteStreamHandler outputHandler =
+                multiplexedStreamPumps
+                        ? new MultiplexedPumpStreamHandler(
+                                stdout, stderr, input, streams, threadFactory)
+                        : new StartSignalingPumpStreamHandler(
+                                stdout, stderr, input, streams, threadFactory);
+        if (stdOutRedirect != null || stdErrRedirect != null) {
+            outputHandler =
+                    new TailingStreamHandler(
+                            outputHandler, tailOf(stdOutRedirect, stdout), tailOf(stdErrRedirect, stderr));
+        }
         executor.setStreamHandler(outputHandler);
 
         String pid = getProcShortName();
-        stdout.addOutputStream(
-                new SLF4jLogOutputStream(logger, pid, STDOUT, outputStreamLogDispatcher));
-        stderr.addOutputStream(
-                new SLF4jLogOutputStream(logger, pid, STDERR, outputStreamLogDispatcher));
+        // Binary STDOUT is neither split into lines for logging nor for the console, and output
+        // redirected to a file is already persisted, and usually too much to log
+        if (captureStdOut) {
+            CapturedOutput captured = new CapturedOutput();
+            stdout.addOutputStream(captured);
+            capturedStdOut = captured;
+        } else if (stdOutRedirect == null) {
+            stdout.addOutputStream(
+                    sink(logOutputStream(pid, STDOUT)));
+        }
+        if (stdErrRedirect == null) {
+            stderr.addOutputStream(
+                    sink(logOutputStream(pid, STDERR)));
+        }
 
         if (consoleBufferMaxLines > 0) {
             console = new RollingLogOutputStream(consoleBufferMaxLines);
-            stdout.addOutputStream(console);
+            if (!captureStdOut) {
+                stdout.addOutputStream(console);
+            }
             stderr.addOutputStream(console);
         }
 
+        if (notifySocketVariable != null) {
+            openNotifySocket();
+        }
+
         if (destroyOnShutdown) {
             executor.setProcessDestroyer(shutdownHookProcessDestroyer);
         }
     }
 
+    private void openNotifySocket() throws ManagedProcessException {
+        CompletableFuture<@Nullable Void> ready = new CompletableFuture<>();
+        NotifySocket socket;
+        try {
+            socket =
+                    NotifySocket.open(
+                            (key, value) -> {
+                                switch (key) {
+                                    case "READY" -> {
+                                        if (value.equals("1")) {
+                                            ready.complete(null);
+                                        }
+                                    }
+                                    case "STATUS" -> notifyStatus = value;
+                                    case "WATCHDOG" -> {
+                                        if (value.equals("1")) {
+                                            watchDog.outputSeen();
+                                        }
+                                    }
+                                    default -> logger.trace("{} reported {}={}", getProcShortName(), key, value);
+                                }
+                            });
+        } catch (IOException e) {
+            throw new ManagedProcessException("Could not create the notify socket for " + getProcLongName(), e);
+        }
+        notifySocket = socket;
+        notifyReady = ready;
+        notifyStatus = null;
+        asyncResult.whenComplete((v, e) -> socket.close());
+    }
+
+    private Map<String, String> launchEnvironment() {
+        NotifySocket socket = notifySocket;
+        if (notifySocketVariable == null || socket == null) {
+            return environment;
+        }
+        Map<String, String> launchEnvironment = new HashMap<>(environment);
+        launchEnvironment.put(notifySocketVariable, socket.path().toString());
+        return launchEnvironment;
+    }
+
+    private OutputStream logOutputStream(String pid, OutputStreamType type) {
+        return new SLF4jLogOutputStream(
+                logger,
+                pid,
+                type,
+                outputStreamLogDispatcher,
+                asyncLoggingOverflowPolicy,
+                dispatchOnLoggingThread,
+                logBacklog);
+    }
+
+    private OutputStream sink(OutputStream stream) {
+        if (asyncSinkBufferSize <= 0) {
+            return stream;
+        }
+        AsyncOutputStream async =
+                new AsyncOutputStream(stream, asyncSinkBufferSize, asyncSinkOverflowPolicy, threadFactory);
+        asyncSinks.add(async);
+        return async;
+    }
+
+    /**
+     * Delivers everything buffered for the asynchronously fed output sinks and the shared logging
+     * thread, so they got all output before whoever waits for the exit of the process is notified.
+     * Sinks and lines which take longer than the output drain timeout in total are discarded.
+     */
+    void finishAsyncSinks() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(outputDrainTimeoutMs);
+        try {
+            for (AsyncOutputStream sink : asyncSinks) {
+                sink.finish(deadline);
+            }
+            if (asyncLoggingOverflowPolicy != null && !logBacklog.await(deadline)) {
+                logger.warn("Logging the remaining output of {} took too long, the rest is lost", getProcShortName());
+            }
+        } catch (InterruptedIOException e) {
+            logger.warn("Interrupted while delivering the remaining output of {}", getProcShortName(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while logging the remaining output of {}", getProcShortName(), e);
+        }
+    }
+
+    private static TailingStreamHandler.@Nullable Tail tailOf(
+            ProcessBuilder.@Nullable Redirect redirect, OutputStream target) {
+        if (redirect == null || redirect.file() == null) {
+            return null;
+        }
+        return new TailingStreamHandler.Tail(
+                redirect.file().toPath(), redirect.type() == ProcessBuilder.Redirect.Type.APPEND, target);
+    }
+
+    /**
+     * Creates a {@link ProcessBuilder} equivalent to how this process is launched, for {@link
+     * ManagedPipeline}.
+     *
+     * @return the process builder
+     */
+    ProcessBuilder newProcessBuilder() {
+        return executor.processBuilder(commandLine, environment);
+    }
+
+    /**
+     * Makes the next {@link #start()} adopt the given, already running process instead of
+     * launching one, for {@link ManagedPipeline}.
+     *
+     * @param process the process to adopt
+     */
+    void adopt(Process process) {
+        executor.adopt(process);
+    }
+
+    /**
+     * Returns whether an input stream is fed to the STDIN of this process.
+     *
+     * @return {@code true} if there is an input stream
+     */
+    boolean hasInput() {
+        return input != null;
+    }
+
     /**
      * Returns the path of the executable that will be launched.
      *
@@ -224,33 +516,192 @@ public class ManagedProcess implements ManagedProcessState {
      */
     protected synchronized void startExecute()
             throws ManagedProcessException, ManagedProcessInterruptedException {
+        launch();
         try {
-            executor.execute(
-                    commandLine,
-                    environment,
-                    new CompletableFutureExecuteResultHandler(asyncResult, listener, this));
-            started = true;
-        } catch (IOException e) {
-            throw new ManagedProcessException("Launch failed: " + commandLine, e);
-        }
-        try {
-            boolean startedNow = streamsStarted.await(2, TimeUnit.SECONDS);
-            if (!startedNow) {
-                logger.warn(
-                        "Process streams did not start within the expected window: {}",
-                        getProcLongName());
-            }
+            startup().get();
             if (asyncResult.isCompletedExceptionally()) {
                 asyncResult.get();
             }
         } catch (InterruptedException ie) {
+            // Gives up a launch still waiting to be admitted
+            launched.completeExceptionally(ie);
             throw handleInterruptedException("startExecute", ie);
         } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof ManagedProcessException e) {
+                throw e;
+            }
             throw new ManagedProcessException(
                     getProcLongName() + " failed during startup: " + getLastConsoleLines(), ee);
         }
     }
 
+    /**
+     * Starts the Process without waiting for anything.
+     *
+     * <p>Unlike {@link #start()}, which blocks until the streams of the process are being pumped,
+     * this returns right after handing the launch off, so one thread can start many processes
+     * without waiting for each of them in turn. With a {@link
+     * ManagedProcessBuilder#setSpawnScheduler(SpawnScheduler) spawn scheduler}, a launch which
+     * isn't admitted right away is queued, and launched on a thread of its own once admitted.
+     *
+     * @return a stage which completes with this instance once the streams of the process are being
+     *     pumped (or two seconds after the launch if they don't start), or completes exceptionally with a
+     *     {@link ManagedProcessException} if the process could not be started
+     */
+    @SuppressWarnings("unused")
+    public synchronized CompletionStage<ManagedProcess> startAsync() {
+        try {
+            startPreparation();
+        } catch (ManagedProcessException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        launch();
+        return startup();
+    }
+
+    /**
+     * Launches the process once the spawn scheduler, if any, admitted it: right away on the calling
+     * thread, or later on a thread of its own, so no thread waits for the admission. {@link
+     * #launched} completes once the process was handed to the executor, or exceptionally with a
+     * {@link ManagedProcessException} if it couldn't be.
+     */
+    private void launch() {
+        CompletableFuture<@Nullable Void> launch = new CompletableFuture<>();
+        launched = launch;
+        // Set before launching, as the result handler (which resets it) may already run before
+        // execute() returns; a launch waiting to be admitted counts as started, too
+        started = true;
+        launchPending.set(true);
+        CompletableFuture<SpawnScheduler.@Nullable Permit> admission = admit();
+        if (admission.isDone()) {
+            admission.whenComplete((permit, e) -> execute(launch, permit, e));
+            return;
+        }
+        launch.whenComplete((v, e) -> admission.cancel(false));
+        admission.whenComplete(
+                (permit, e) -> {
+                    if (e != null) {
+                        // Nothing to launch
+                        execute(launch, null, e);
+                        return;
+                    }
+                    try {
+                        ThreadFactories.newThread(
+                                        threadFactory, () -> execute(launch, permit, e), "ExecLauncher-", true)
+                                .start();
+                    } catch (RuntimeException re) {
+                        execute(launch, permit, re);
+                    }
+                });
+    }
+
+    private CompletableFuture<SpawnScheduler.@Nullable Permit> admit() {
+        // An adopted process was launched already
+        if (spawnScheduler == null || executor.hasAdopted()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return spawnScheduler.acquire(spawnPriority);
+    }
+
+    private void execute(
+            CompletableFuture<@Nullable Void> launch,
+            SpawnScheduler.@Nullable Permit permit,
+            @Nullable Throwable admissionFailure) {
+        boolean pending = launchPending.compareAndSet(true, false);
+        if (!pending || admissionFailure != null || launch.isDone()) {
+            // Rejected, or given up on (e.g. destroyed) while waiting to be admitted
+            if (permit != null) {
+                permit.release();
+            }
+            Throwable cause =
+                    admissionFailure instanceof CompletionException && admissionFailure.getCause() != null
+                            ? admissionFailure.getCause()
+                            : admissionFailure;
+            if (pending) {
+                abandonLaunch(
+                        launch,
+                        cause instanceof ManagedProcessException e
+                                ? e
+                                : new ManagedProcessException("Launch failed: " + commandLine, cause));
+            }
+            return;
+        }
+        ExecuteResultHandler resultHandler =
+                new CompletableFutureExecuteResultHandler(asyncResult, listener, this);
+        reached(LifecyclePhase.LAUNCHING);
+        if (permit != null) {
+            // The launch ends once the streams are pumped, or the process failed before that
+            CompletableFuture.anyOf(streamsStarted, asyncResult).whenComplete((v, e) -> permit.release());
+        }
+        try {
+            if (asyncExitNotification) {
+                executor.executeWithExitNotification(commandLine, launchEnvironment(), resultHandler);
+            } else {
+                executor.execute(commandLine, launchEnvironment(), resultHandler);
+            }
+            launch.complete(null);
+        } catch (IOException | RuntimeException e) {
+            // Released here too, as the streams never start and the result may never come
+            if (permit != null) {
+                permit.release();
+            }
+            abandonLaunch(launch, new ManagedProcessException("Launch failed: " + commandLine, e));
+        }
+    }
+
+    // The watchdog is told as well, as destroying the process waits for it to learn the outcome
+    private void abandonLaunch(CompletableFuture<@Nullable Void> launch, ManagedProcessException failure) {
+        started = false;
+        closeNotifySocket();
+        watchDog.failedToStart(failure);
+        launch.completeExceptionally(failure);
+    }
+
+    private void closeNotifySocket() {
+        NotifySocket socket = notifySocket;
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    /**
+     * Returns a future which completes once the streams of the launched process are being pumped,
+     * or exceptionally if it failed to launch, as it will then never start its streams.
+     */
+    private CompletableFuture<ManagedProcess> startup() {
+        CompletableFuture<ManagedProcess> startup = new CompletableFuture<>();
+        streamsStarted.thenRun(() -> startup.complete(this));
+        asyncResult.whenComplete(
+                (v, e) -> {
+                    if (e != null) {
+                        startup.completeExceptionally(
+                                new ManagedProcessException(
+                                        getProcLongName() + " failed during startup: " + getLastConsoleLines(), e));
+                    }
+                });
+        // The window only opens once launched, not while waiting to be admitted
+        launched.whenComplete(
+                (v, e) -> {
+                    if (e != null) {
+                        startup.completeExceptionally(e);
+                    } else if (!startup.isDone()) {
+                        ScheduledFuture<?> timeout =
+                                SharedScheduler.schedule(
+                                        () -> {
+                                            if (startup.complete(this)) {
+                                                logger.warn(
+                                                        "Process streams did not start within the expected window: {}",
+                                                        getProcLongName());
+                                            }
+                                        },
+                                        2,
+                                        TimeUnit.SECONDS);
+                        startup.whenComplete((p, f) -> timeout.cancel(false));
+                    }
+                });
+        return startup;
+    }
+
     /**
      * Starts the Process and waits (blocks) until the process prints a certain message.
      *
@@ -278,6 +729,7 @@ public class ManagedProcess implements ManagedProcessState {
                 new CheckingConsoleOutputStream(
                         messageInConsole,
                         ignored -> {
+                            reached(LifecyclePhase.READY);
                             seen.complete(true);
                             return null;
                         },
@@ -320,6 +772,356 @@ public class ManagedProcess implements ManagedProcessState {
         }
     }
 
+    /**
+     * Starts the Process and returns a future which completes once the process prints a certain
+     * message, without blocking any thread while waiting.
+     *
+     * <p>Like {@link #startAndWaitForConsoleMessageMaxMs(String, long)}, but the timeout fires on a
+     * scheduler shared by all processes, so readiness of many processes started together can be
+     * awaited in parallel, e.g. with {@link CompletableFuture#allOf(CompletableFuture[])}.
+     *
+     * @param messageInConsole text to wait for in the STDOUT/STDERR of the external process
+     * @param maxWaitUntilReturning maximum time to wait, in milliseconds, for the message
+     * @return a future which completes with a ready {@link Readiness} once the message was seen,
+     *     with one which {@linkplain Readiness#isReady() isn't ready} if it wasn't seen within
+     *     {@code maxWaitUntilReturning}, or exceptionally with a {@link ManagedProcessException} if
+     *     the process could not be started or exited without the message ever appearing in the
+     *     Console
+     */
+    @SuppressWarnings("unused")
+    public synchronized CompletableFuture<Readiness> startAndWaitForConsoleMessageAsync(
+            String messageInConsole, long maxWaitUntilReturning) {
+        CompletableFuture<Readiness> readiness = new CompletableFuture<>();
+        long start = System.nanoTime();
+        CheckingConsoleOutputStream checkingConsoleOutputStream =
+                new CheckingConsoleOutputStream(
+                        messageInConsole,
+                        message -> {
+                            reached(LifecyclePhase.READY);
+                            readiness.complete(new Readiness(messageInConsole, elapsedMsSince(start)));
+                            return null;
+                        },
+                        null);
+        try {
+            startPreparation();
+            stdout.addOutputStream(checkingConsoleOutputStream);
+            stderr.addOutputStream(checkingConsoleOutputStream);
+            logger.info(
+                    "Waiting up to {}ms for \"{}\" in console output of {}",
+                    maxWaitUntilReturning,
+                    messageInConsole,
+                    getProcLongName());
+            launch();
+        } catch (ManagedProcessException e) {
+            stdout.removeOutputStream(checkingConsoleOutputStream);
+            stderr.removeOutputStream(checkingConsoleOutputStream);
+            return CompletableFuture.failedFuture(e);
+        }
+        return awaitReadiness(
+                readiness,
+                messageInConsole,
+                maxWaitUntilReturning,
+                start,
+                () -> {
+                    stdout.removeOutputStream(checkingConsoleOutputStream);
+                    stderr.removeOutputStream(checkingConsoleOutputStream);
+                });
+    }
+
+    /**
+     * Starts the Process and waits (blocks) until all its readiness probes, see {@link
+     * ManagedProcessBuilder#addReadinessProbe(ReadinessProbe)}, are ready.
+     *
+     * <p>The probes are polled on threads shared by all processes, so the process is seen
+     * ready a few milliseconds after e.g. its port accepts connections, even if it prints a log
+     * line about that late, or never.
+     *
+     * @param maxWaitUntilReturning maximum time to wait, in milliseconds, until returning, if the
+     *     probes aren't all ready
+     * @return {@code true} if the process is ready, {@code false} if waiting timed out
+     * @throws ManagedProcessException if no probes were added, or the process could not be
+     *     started, or it exited before it was ready
+     * @throws ManagedProcessInterruptedException if interrupted while waiting
+     */
+    @SuppressWarnings("unused")
+    public boolean startAndWaitForReadinessMaxMs(long maxWaitUntilReturning)
+            throws ManagedProcessException, ManagedProcessInterruptedException {
+        try {
+            return startAndWaitForReadinessAsync(maxWaitUntilReturning).get().isReady();
+        } catch (InterruptedException ie) {
+            throw handleInterruptedException("startAndWaitForReadinessMaxMs", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof ManagedProcessException e) {
+                throw e;
+            }
+            throw new ManagedProcessException("Error while waiting for readiness", ee.getCause());
+        }
+    }
+
+    /**
+     * Starts the Process and returns a future which completes once all its readiness probes, see
+     * {@link ManagedProcessBuilder#addReadinessProbe(ReadinessProbe)}, are ready, without blocking
+     * any thread while waiting.
+     *
+     * @param maxWaitUntilReturning maximum time to wait, in milliseconds, for the probes
+     * @return a future which completes with a ready {@link Readiness} once all probes are ready,
+     *     with one which {@linkplain Readiness#isReady() isn't ready} if they weren't within {@code
+     *     maxWaitUntilReturning}, or exceptionally with a {@link ManagedProcessException} if no
+     *     probes were added, the process could not be started or exited before it was ready
+     */
+    public synchronized CompletableFuture<Readiness> startAndWaitForReadinessAsync(long maxWaitUntilReturning) {
+        if (!hasReadinessChecks()) {
+            return CompletableFuture.failedFuture(
+                    new ManagedProcessException(getProcLongName() + " has no readiness probes"));
+        }
+        CompletableFuture<Readiness> readiness = new CompletableFuture<>();
+        long start = System.nanoTime();
+        List<String> awaited = new ArrayList<>();
+        readinessProbes.forEach(probe -> awaited.add(probe.toString()));
+        if (notifySocketVariable != null) {
+            awaited.add("READY=1 on " + notifySocketVariable);
+        }
+        String probes = awaited.toString();
+        try {
+            startPreparation();
+            logger.info(
+                    "Waiting up to {}ms for {} of {}", maxWaitUntilReturning, probes, getProcLongName());
+            launch();
+        } catch (ManagedProcessException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        AtomicInteger pending = new AtomicInteger(awaited.size());
+        Runnable onReady =
+                () -> {
+                    if (pending.decrementAndGet() == 0) {
+                        reached(LifecyclePhase.READY);
+                        readiness.complete(new Readiness(probes, elapsedMsSince(start)));
+                    }
+                };
+        for (ReadinessProbe probe : readinessProbes) {
+            probe.poll(readiness, onReady);
+        }
+        if (notifySocketVariable != null) {
+            notifyReady.thenRun(onReady);
+        }
+        return awaitReadiness(readiness, probes, maxWaitUntilReturning, start, () -> {});
+    }
+
+    /**
+     * Completes {@code readiness} exceptionally if the process exits, or as not ready once {@code
+     * maxWaitUntilReturning} passed, unless it's completed before.
+     */
+    private CompletableFuture<Readiness> awaitReadiness(
+            CompletableFuture<Readiness> readiness,
+            String awaited,
+            long maxWaitUntilReturning,
+            long start,
+            Runnable cleanup) {
+        launched.whenComplete(
+                (v, e) -> {
+                    if (e != null) {
+                        readiness.completeExceptionally(e);
+                    }
+                });
+        asyncResult.whenComplete(
+                (v, e) -> readiness.completeExceptionally(
+                        new ManagedProcessException(getUnexpectedExitMsg(awaited))));
+        ScheduledFuture<?> timeout =
+                SharedScheduler.schedule(
+                        () -> {
+                            if (readiness.complete(new Readiness(null, elapsedMsSince(start)))) {
+                                logger.warn(
+                                        "Timed out waiting for \"{}\" after {} ms", awaited, maxWaitUntilReturning);
+                            }
+                        },
+                        maxWaitUntilReturning,
+                        TimeUnit.MILLISECONDS);
+        readiness.whenComplete(
+                (r, e) -> {
+                    timeout.cancel(false);
+                    cleanup.run();
+                });
+        return readiness;
+    }
+
+    private static long elapsedMsSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Starts the Process and waits (blocks) until the process prints any of several messages, each
+     * meaning either that it's ready or that it failed.
+     *
+     * <p>All messages are searched for in a single pass over the console output. This allows to
+     * fail fast on known error messages, e.g. {@code "Address already in use"}, instead of waiting
+     * for the full timeout when the process is stuck rather than exiting. The process is left
+     * running in that case, use {@link #destroy()} if it should be stopped.
+     *
+     * @param messagesInConsole texts to wait for in the STDOUT/STDERR of the external process, and
+     *     what each of them means
+     * @param maxWaitUntilReturning maximum time to wait, in milliseconds, until returning, if none
+     *     of the messages was seen
+     * @return the first {@link Outcome#READY} message seen, or {@code null} if none of the messages
+     *     was seen within {@code maxWaitUntilReturning}
+     * @throws IOException if the console output can't be watched
+     * @throws ManagedProcessException if a {@link Outcome#FAILED} message was seen first, or the
+     *     process already exited without any of the messages appearing in the Console
+     * @throws ManagedProcessInterruptedException if interrupted while waiting
+     */
+    public @Nullable String startAndWaitForAnyConsoleMessage(
+            Map<String, Outcome> messagesInConsole, long maxWaitUntilReturning)
+            throws IOException, ManagedProcessInterruptedException {
+        startPreparation();
+
+        CompletableFuture<@Nullable String> seen = new CompletableFuture<>();
+
+        try (MultiPatternConsoleOutputStream checkingConsoleOutputStream =
+                new MultiPatternConsoleOutputStream(
+                        messagesInConsole.keySet(),
+                        message -> {
+                            if (messagesInConsole.get(message) == Outcome.READY) {
+                                reached(LifecyclePhase.READY);
+                            }
+                            seen.complete(message);
+                            return false;
+                        },
+                        null)) {
+            stdout.addOutputStream(checkingConsoleOutputStream);
+            stderr.addOutputStream(checkingConsoleOutputStream);
+
+            logger.info(
+                    "Waiting up to {}ms for any of {} in console output of {}",
+                    maxWaitUntilReturning,
+                    messagesInConsole,
+                    getProcLongName());
+
+            startExecute();
+
+            CompletableFuture<@Nullable String> exitFuture = asyncResult.handle((v, e) -> null);
+
+            CompletableFuture<@Nullable String> result = seen.applyToEither(exitFuture, m -> m);
+
+            try {
+                String message = result.get(maxWaitUntilReturning, TimeUnit.MILLISECONDS);
+                if (message == null) {
+                    throw new ManagedProcessException(
+                            getUnexpectedExitMsg(String.join("\" or \"", messagesInConsole.keySet())));
+                }
+                if (messagesInConsole.get(message) == Outcome.FAILED) {
+                    throw new ManagedProcessException(
+                            getProcLongName()
+                                    + " failed to start, it printed \""
+                                    + message
+                                    + "\""
+                                    + getLastConsoleLines());
+                }
+                return message;
+            } catch (TimeoutException te) {
+                logger.warn(
+                        "Timed out waiting for any of {} after {} ms (returning null)",
+                        messagesInConsole.keySet(),
+                        maxWaitUntilReturning);
+                return null;
+            } catch (InterruptedException ie) {
+                throw handleInterruptedException("startAndWaitForAnyConsoleMessage", ie);
+            } catch (ExecutionException ee) {
+                throw new IOException("Error while waiting for console message", ee.getCause());
+            } finally {
+                stdout.removeOutputStream(checkingConsoleOutputStream);
+                stderr.removeOutputStream(checkingConsoleOutputStream);
+            }
+        }
+    }
+
+    /**
+     * Starts the Process and waits (blocks) until a line of its console output matches a regular
+     * expression, looking at up to {@value PatternConsoleOutputStream#DEFAULT_MAX_LINE_LENGTH}
+     * bytes of each line.
+     *
+     * @param pattern the pattern to find in a line of the STDOUT/STDERR of the external process
+     * @param maxWaitUntilReturning maximum time to wait, in milliseconds, until returning, if no
+     *     line matched
+     * @return the match, e.g. to get the port a server reports it bound to from a group, or {@code
+     *     null} if no line matched within {@code maxWaitUntilReturning}
+     * @throws IOException if the console output can't be watched
+     * @throws ManagedProcessException if the process already exited without any line matching
+     * @throws ManagedProcessInterruptedException if interrupted while waiting
+     * @see #startAndWaitForConsolePattern(Pattern, int, long)
+     */
+    @SuppressWarnings("unused")
+    public @Nullable MatchResult startAndWaitForConsolePattern(Pattern pattern, long maxWaitUntilReturning)
+            throws IOException, ManagedProcessInterruptedException {
+        return startAndWaitForConsolePattern(
+                pattern, PatternConsoleOutputStream.DEFAULT_MAX_LINE_LENGTH, maxWaitUntilReturning);
+    }
+
+    /**
+     * Starts the Process and waits (blocks) until a line of its console output matches a regular
+     * expression.
+     *
+     * @param pattern the pattern to find in a line of the STDOUT/STDERR of the external process
+     * @param maxLineLength the max number of bytes of each line that are looked at
+     * @param maxWaitUntilReturning maximum time to wait, in milliseconds, until returning, if no
+     *     line matched
+     * @return the match, or {@code null} if no line matched within {@code maxWaitUntilReturning}
+     * @throws IOException if the console output can't be watched
+     * @throws ManagedProcessException if the process already exited without any line matching
+     * @throws ManagedProcessInterruptedException if interrupted while waiting
+     */
+    public @Nullable MatchResult startAndWaitForConsolePattern(
+            Pattern pattern, int maxLineLength, long maxWaitUntilReturning)
+            throws IOException, ManagedProcessInterruptedException {
+        startPreparation();
+
+        CompletableFuture<@Nullable MatchResult> seen = new CompletableFuture<>();
+
+        Predicate<MatchResult> onMatch =
+                match -> {
+                    reached(LifecyclePhase.READY);
+                    seen.complete(match);
+                    return false;
+                };
+        // One per stream, as each splits what's written into lines
+        PatternConsoleOutputStream stdoutPattern =
+                new PatternConsoleOutputStream(pattern, onMatch, maxLineLength, null);
+        PatternConsoleOutputStream stderrPattern =
+                new PatternConsoleOutputStream(pattern, onMatch, maxLineLength, null);
+        stdout.addOutputStream(stdoutPattern);
+        stderr.addOutputStream(stderrPattern);
+        try {
+            logger.info(
+                    "Waiting up to {}ms for a line matching \"{}\" in console output of {}",
+                    maxWaitUntilReturning,
+                    pattern,
+                    getProcLongName());
+
+            startExecute();
+
+            CompletableFuture<@Nullable MatchResult> exitFuture = asyncResult.handle((v, e) -> null);
+
+            CompletableFuture<@Nullable MatchResult> result = seen.applyToEither(exitFuture, m -> m);
+
+            MatchResult match = result.get(maxWaitUntilReturning, TimeUnit.MILLISECONDS);
+            if (match == null) {
+                throw new ManagedProcessException(getUnexpectedExitMsg(pattern.pattern()));
+            }
+            return match;
+        } catch (TimeoutException te) {
+            logger.warn(
+                    "Timed out waiting for a line matching \"{}\" after {} ms (returning null)",
+                    pattern,
+                    maxWaitUntilReturning);
+            return null;
+        } catch (InterruptedException ie) {
+            throw handleInterruptedException("startAndWaitForConsolePattern", ie);
+        } catch (ExecutionException ee) {
+            throw new IOException("Error while waiting for console message", ee.getCause());
+        } finally {
+            stdout.removeOutputStream(stdoutPattern);
+            stderr.removeOutputStream(stderrPattern);
+        }
+    }
+
     /**
      * Builds a diagnostic message used when the process exits before emitting
      * an expected console marker.
@@ -368,30 +1170,81 @@ public class ManagedProcess implements ManagedProcessState {
             throw new ManagedProcessException(
                     getProcLongName() + " was already stopped (or never started)");
         }
-        if (logger.isDebugEnabled()) {
-            logger.debug("Going to destroy {}", getProcLongName());
-        }
-
-        watchDog.destroyProcess();
 
         try {
-            // Safer to get() after destroy()
-            asyncResult.get();
+            destroyAsync().get();
         } catch (InterruptedException e) {
             throw handleInterruptedException("destroy", e);
         } catch (ExecutionException ee) {
-            // process failed, likely because it was destroyed
+            // the process exited by itself in the meantime
         }
+    }
 
-        if (logger.isInfoEnabled()) {
-            logger.info("Successfully destroyed {}", getProcLongName());
+    /**
+     * Kills the Process without waiting for it to exit.
+     *
+     * <p>Many processes can so be destroyed in parallel, e.g. by {@link
+     * ManagedProcessGroup#destroy(long)}, instead of one after another with {@link #destroy()},
+     * which waits for each.
+     *
+     * @return a future which completes once the process exited, or exceptionally with a {@link
+     *     ManagedProcessException} if it was already stopped (or never started)
+     */
+    public CompletableFuture<@Nullable Void> destroyAsync() {
+        if (!isAlive()) {
+            return CompletableFuture.failedFuture(
+                    new ManagedProcessException(getProcLongName() + " was already stopped (or never started)"));
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Going to destroy {}", getProcLongName());
+        }
+        if (launchPending.compareAndSet(true, false)) {
+            // Still waiting for the spawn scheduler to admit it, so there's nothing to kill yet
+            abandonLaunch(
+                    launched, new ManagedProcessException(getProcLongName() + " was destroyed before it was launched"));
+            asyncResult.cancel(false);
+            if (logger.isInfoEnabled()) {
+                logger.info("Successfully destroyed {} before it was launched", getProcLongName());
+            }
+            return CompletableFuture.completedFuture(null);
         }
+
+        JfrEvents.Destroy event = JfrEvents.beginDestroy(pid);
+        watchDog.destroyProcess();
+
+        // The process failing is expected, as it was destroyed
+        return asyncResult.handle(
+                (exitValue, e) -> {
+                    JfrEvents.endDestroy(event);
+                    if (logger.isInfoEnabled()) {
+                        logger.info("Successfully destroyed {}", getProcLongName());
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Returns a future which completes once the process exited, without blocking any thread while
+     * waiting.
+     *
+     * @return a future which completes with the exit value, or exceptionally if the process
+     *     failed, e.g. with an {@link org.apache.commons.exec.ExecuteException} if its exit value
+     *     isn't considered success
+     */
+    public CompletableFuture<Integer> onExit() {
+        return asyncResult.copy();
+    }
+
+    /** Whether this process has readiness probes, or a notify socket to report readiness on. */
+    boolean hasReadinessChecks() {
+        return !readinessProbes.isEmpty() || notifySocketVariable != null;
     }
 
     // Java Doc shamelessly copy/pasted from java.lang.Thread#isAlive() :
     /**
      * Tests if this process is alive. A process is alive if it has been started and has not yet
-     * terminated.
+     * terminated. A process waiting for its {@link ManagedProcessBuilder#setSpawnScheduler(SpawnScheduler)
+     * spawn scheduler} to admit its launch counts as alive; destroying it gives up the launch.
      *
      * @return <code>true</code> if this process is alive; <code>false</code> otherwise.
      */
@@ -560,6 +1413,187 @@ public class ManagedProcess implements ManagedProcessState {
         }
     }
 
+    /**
+     * Returns how many bytes of output the sinks fed asynchronously discarded so far because they
+     * couldn't keep up, see {@link ManagedProcessBuilder#setAsyncSinks(int, OverflowPolicy)}.
+     *
+     * <p>Each sink counts the output it discarded, so the same output discarded by two sinks is
+     * counted twice.
+     *
+     * @return the number of dropped bytes, always {@code 0} if the sinks aren't fed asynchronously
+     */
+    @SuppressWarnings("unused")
+    public long getDroppedOutputBytes() {
+        long dropped = 0;
+        for (AsyncOutputStream sink : asyncSinks) {
+            dropped += sink.getDroppedBytes();
+        }
+        return dropped;
+    }
+
+    /**
+     * Returns how many output lines weren't logged so far because the queue of the shared logging
+     * thread was full, see {@link ManagedProcessBuilder#setAsyncLoggingOverflowPolicy(OverflowPolicy)},
+     * or because they weren't logged within {@link ManagedProcessBuilder#setOutputDrainTimeoutMs(long)}
+     * after the exit.
+     *
+     * @return the number of dropped lines, always {@code 0} if not logging asynchronously
+     */
+    @SuppressWarnings("unused")
+    public long getDroppedLogLines() {
+        return droppedLogLines.get();
+    }
+
+    /**
+     * Returns the PID of the OS process.
+     *
+     * @return the PID, or -1 if the process wasn't launched (yet)
+     */
+    @SuppressWarnings("unused")
+    public long getPid() {
+        return pid;
+    }
+
+    /**
+     * Returns the handle of the OS process, e.g. to look at its {@link ProcessHandle#info()
+     * info} or {@link ProcessHandle#descendants() descendants}.
+     *
+     * @return the handle, or {@code null} if the process wasn't launched (yet)
+     */
+    @SuppressWarnings("unused")
+    public @Nullable ProcessHandle getProcessHandle() {
+        return processHandle;
+    }
+
+    /**
+     * Returns the resource usage of the process sampled so far by the {@link
+     * ManagedProcessBuilder#setProcessSampler(ProcessSampler) process sampler}. The samples are
+     * kept after the process exited.
+     *
+     * @return the samples, or {@code null} if there is no sampler, or the process wasn't launched
+     *     (yet)
+     */
+    @SuppressWarnings("unused")
+    public @Nullable ResourceSamples getResourceSamples() {
+        return resourceSamples;
+    }
+
+    /**
+     * Returns when the process reached a phase of its lifecycle.
+     *
+     * @param phase the phase
+     * @return the time in {@link System#nanoTime()} nanoseconds, or -1 if the phase wasn't reached
+     *     (yet)
+     */
+    @SuppressWarnings("unused")
+    public long getPhaseNanos(LifecyclePhase phase) {
+        long nanos = phaseNanos.get(phase.ordinal());
+        return nanos != 0 ? nanos : -1;
+    }
+
+    /**
+     * Returns how long it took the process from one phase of its lifecycle to another, e.g. from
+     * {@link LifecyclePhase#LAUNCHING} to {@link LifecyclePhase#LAUNCHED} for the cost of forking
+     * it.
+     *
+     * @param from the earlier phase
+     * @param to the later phase
+     * @return the time between the phases in nanoseconds, or -1 if either wasn't reached (yet)
+     */
+    @SuppressWarnings("unused")
+    public long getNanosBetween(LifecyclePhase from, LifecyclePhase to) {
+        long fromNanos = getPhaseNanos(from);
+        long toNanos = getPhaseNanos(to);
+        return fromNanos != -1 && toNanos != -1 ? toNanos - fromNanos : -1;
+    }
+
+    private void reached(LifecyclePhase phase) {
+        long now = System.nanoTime();
+        // Only the first time a phase is reached counts
+        if (!phaseNanos.compareAndSet(phase.ordinal(), 0, now)) {
+            return;
+        }
+        long starting = phaseNanos.get(LifecyclePhase.STARTING.ordinal());
+        if (starting == 0) {
+            // Built, or completed without ever being started
+            return;
+        }
+        switch (phase) {
+            case LAUNCHING -> spawnEvent = JfrEvents.beginSpawn();
+            case LAUNCHED -> JfrEvents.endSpawn(spawnEvent, pid, commandLine);
+            case STREAMS_STARTED -> JfrEvents.streamsStarted(pid, now - starting);
+            case READY -> JfrEvents.ready(pid, now - starting);
+            default -> {}
+        }
+        if (lifecycleMetrics == null) {
+            return;
+        }
+        try {
+            lifecycleMetrics.phaseReached(this, phase, now - starting);
+        } catch (RuntimeException e) {
+            logger.warn("{} failed to record {} of {}", lifecycleMetrics, phase, getProcShortName(), e);
+        }
+    }
+
+    /**
+     * Records that the process completed, after its output was delivered and its listener notified
+     * but before anyone waiting for its exit is woken up, so they see the {@link
+     * LifecyclePhase#COMPLETED} phase, the final samples and the exit event already recorded.
+     */
+    void completed(@Nullable Integer exitValue, @Nullable ExecuteException failure) {
+        // The process was reaped already, even if its onExit() stage didn't run yet
+        reached(LifecyclePhase.EXITED);
+        reached(LifecyclePhase.COMPLETED);
+        ResourceSamples samples = resourceSamples;
+        if (processSampler != null && samples != null) {
+            processSampler.unregister(samples);
+        }
+        JfrEvents.untrack(streamActivity);
+        long starting = phaseNanos.get(LifecyclePhase.STARTING.ordinal());
+        if (starting != 0) {
+            JfrEvents.exit(
+                    pid,
+                    exitValue != null
+                            ? exitValue
+                            : failure != null ? failure.getExitValue() : Executor.INVALID_EXITVALUE,
+                    failure != null,
+                    System.nanoTime() - starting);
+        }
+    }
+
+    /**
+     * Returns the status the process last reported with {@code STATUS=...} on its notify socket,
+     * see {@link ManagedProcessBuilder#setNotifySocketVariable(String)}.
+     *
+     * @return the status, or {@code null} if none was reported since the last start
+     */
+    @SuppressWarnings("unused")
+    public @Nullable String getNotifyStatus() {
+        return notifyStatus;
+    }
+
+    /**
+     * Returns the raw bytes written to STDOUT by the process, if it was built with {@link
+     * ManagedProcessBuilder#setCaptureStdOut(boolean)}.
+     *
+     * <p>Each start of the process captures into a new {@link CapturedOutput}. It holds everything
+     * written so far while the process runs, and all of it once {@link #waitForExit()} returned.
+     * Call {@link CapturedOutput#release()} once done with it.
+     *
+     * @return the captured STDOUT
+     * @throws ManagedProcessException if STDOUT isn't captured, or the process was never started
+     */
+    public CapturedOutput getCapturedStdOut() throws ManagedProcessException {
+        CapturedOutput captured = capturedStdOut;
+        if (captured == null) {
+            throw new ManagedProcessException(
+                    captureStdOut
+                            ? getProcLongName() + " was never started"
+                            : getProcLongName() + " does not capture its STDOUT");
+        }
+        return captured;
+    }
+
     @Override
     public String getLastConsoleLines() {
         return ", last " + consoleBufferMaxLines + " lines of console:\n" + getConsole();
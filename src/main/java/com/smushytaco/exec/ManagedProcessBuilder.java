@@ -30,6 +30,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.IntPredicate;
 
 /**
@@ -52,6 +53,13 @@ import java.util.function.IntPredicate;
  */
 public class ManagedProcessBuilder {
 
+    /**
+     * System property which, if set to {@code true}, makes every {@link ManagedProcess} that has no
+     * explicit {@link #setThreadFactory(ThreadFactory) thread factory} run its executor and stream
+     * pump threads on virtual threads instead of platform threads.
+     */
+    public static final String VIRTUAL_THREADS_PROPERTY = "com.smushytaco.exec.virtualThreads";
+
     /** Underlying Apache Commons Exec command line being built. */
     protected final CommandLine commonsExecCommandLine;
     /** Environment variables to pass to the launched process. */
@@ -77,11 +85,69 @@ public class ManagedProcessBuilder {
     protected List<OutputStream> stdOuts = new ArrayList<>();
     /** Additional output streams to receive the process STDERR. */
     protected List<OutputStream> stdErrs = new ArrayList<>();
+    /** Probes which tell whether the process is ready. */
+    protected List<ReadinessProbe> readinessProbes = new ArrayList<>();
+    /** Environment variable passing the path of the notify socket to the process, or {@code null} for none. */
+    protected @Nullable String notifySocketVariable;
+    /** Admission control for launching the process, or {@code null} for none. */
+    protected @Nullable SpawnScheduler spawnScheduler;
+    /** Priority of launching the process with the {@link #spawnScheduler}. */
+    protected int spawnPriority;
+    /** Receives the phases the process goes through, or {@code null} for none. */
+    protected @Nullable LifecycleMetrics lifecycleMetrics;
+    /** Samples the resource usage of the process, or {@code null} for none. */
+    protected @Nullable ProcessSampler processSampler;
     /**
      * Predicate that decides whether an exit value represents success.
      * Defaults to {@code exitValue == 0}.
      */
     protected IntPredicate isSuccessExitValueChecker = exitValue -> exitValue == 0;
+    /**
+     * Factory for the executor and stream pump threads, or {@code null} to use the
+     * JVM-wide default (see {@link #VIRTUAL_THREADS_PROPERTY}).
+     */
+    protected @Nullable ThreadFactory threadFactory;
+    /**
+     * If {@code true}, the exit of the process is noticed via {@link Process#onExit()} instead of a
+     * thread blocking in {@link Process#waitFor()}.
+     */
+    protected boolean asyncExitNotification;
+    /**
+     * If {@code true}, STDOUT and STDERR are copied by the pump threads shared by all processes
+     * instead of two threads per process.
+     */
+    protected boolean multiplexedStreamPumps;
+    /** If {@code true}, STDOUT is captured as raw bytes instead of logged and kept as console lines. */
+    protected boolean captureStdOut;
+    /** File the OS writes STDOUT to, or {@code null} to pipe it into the JVM. */
+    protected ProcessBuilder.@Nullable Redirect stdOutRedirect;
+    /** File the OS writes STDERR to, or {@code null} to pipe it into the JVM. */
+    protected ProcessBuilder.@Nullable Redirect stdErrRedirect;
+    /** Wall-clock time in milliseconds after which the process is destroyed, or non-positive for none. */
+    protected long timeoutMs = -1;
+    /**
+     * Time in milliseconds without any STDOUT/STDERR output after which the process is destroyed,
+     * or non-positive for none.
+     */
+    protected long idleOutputTimeoutMs = -1;
+    /**
+     * Buffer size in bytes of each asynchronously fed output sink, or non-positive to feed them on
+     * the stream pump threads.
+     */
+    protected int asyncSinkBufferSize = -1;
+    /** What asynchronously fed output sinks do when their buffer is full. */
+    protected OverflowPolicy asyncSinkOverflowPolicy = OverflowPolicy.BLOCK;
+    /**
+     * Time in milliseconds the output still buffered for asynchronously fed sinks and the shared
+     * logging thread may take to be delivered once the process exited, before it's discarded.
+     */
+    protected long outputDrainTimeoutMs = 10_000;
+    /** If {@code true}, output lines are logged by a shared logging thread instead of the pump threads. */
+    protected boolean asyncLogging;
+    /** What the pump threads do when the queue of the shared logging thread is full. */
+    protected OverflowPolicy asyncLoggingOverflowPolicy = OverflowPolicy.BLOCK;
+    /** If {@code true}, the {@link OutputStreamLogDispatcher} is called on the shared logging thread. */
+    protected boolean dispatchOnLoggingThread;
 
     /**
      * Returns the currently configured process listener.
@@ -378,6 +444,400 @@ public class ManagedProcessBuilder {
         return outputStreamLogDispatcher;
     }
 
+    /**
+     * Sets the factory used to create the executor and stream pump threads of the process.
+     *
+     * @param threadFactory the factory to use, or {@code null} to use the JVM-wide default (see
+     *     {@link #VIRTUAL_THREADS_PROPERTY})
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setThreadFactory(@Nullable ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    /**
+     * Runs the executor and stream pump threads of the process on virtual threads.
+     *
+     * <p>This is a shortcut for {@link #setThreadFactory(ThreadFactory)} with a virtual thread
+     * factory, and is useful when running many concurrent processes.
+     *
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder useVirtualThreads() {
+        return setThreadFactory(ThreadFactories.virtual());
+    }
+
+    /**
+     * Returns the explicitly configured thread factory.
+     *
+     * @return the thread factory, or {@code null} if the JVM-wide default is used
+     */
+    @SuppressWarnings("unused")
+    public @Nullable ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    /**
+     * Sets a hard wall-clock deadline: if the process is still running this many milliseconds after
+     * it was started, it is destroyed (and {@link ManagedProcess#watchDogKilledProcess()} returns
+     * {@code true}).
+     *
+     * @param timeoutMs the deadline in milliseconds, or a non-positive value for none (the default)
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        return this;
+    }
+
+    /**
+     * Returns the wall-clock deadline.
+     *
+     * @return the deadline in milliseconds, or a non-positive value for none
+     */
+    @SuppressWarnings("unused")
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Sets an idle deadline: if the process writes nothing to STDOUT or STDERR for this many
+     * milliseconds, it is destroyed (and {@link ManagedProcess#watchDogKilledProcess()} returns
+     * {@code true}).
+     *
+     * <p>Useful for tools which are known to print progress while they work, but sometimes hang.
+     *
+     * @param idleOutputTimeoutMs the deadline in milliseconds, or a non-positive value for none (the
+     *     default)
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setIdleOutputTimeoutMs(long idleOutputTimeoutMs) {
+        this.idleOutputTimeoutMs = idleOutputTimeoutMs;
+        return this;
+    }
+
+    /**
+     * Returns the idle output deadline.
+     *
+     * @return the deadline in milliseconds, or a non-positive value for none
+     */
+    @SuppressWarnings("unused")
+    public long getIdleOutputTimeoutMs() {
+        return idleOutputTimeoutMs;
+    }
+
+    /**
+     * Enables or disables noticing the exit of the process via {@link Process#onExit()}.
+     *
+     * <p>By default, one thread per running process blocks in {@link Process#waitFor()} until it
+     * exits. When enabled, the JDK's process reaper, which watches every child process anyway,
+     * notifies the {@link ManagedProcess} instead, and a thread is only needed briefly for the
+     * cleanup after the exit. The process is then also launched on the thread calling {@link
+     * ManagedProcess#start()}.
+     *
+     * @param flag {@code true} to use {@link Process#onExit()}, {@code false} (the default) for a
+     *     waiting thread
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setAsyncExitNotification(boolean flag) {
+        asyncExitNotification = flag;
+        return this;
+    }
+
+    /**
+     * Returns whether the exit of the process is noticed via {@link Process#onExit()}.
+     *
+     * @return {@code true} if no thread waits for the process to exit
+     */
+    @SuppressWarnings("unused")
+    public boolean isAsyncExitNotification() {
+        return asyncExitNotification;
+    }
+
+    /**
+     * Enables or disables copying STDOUT and STDERR on a small pool of pump threads shared by all
+     * processes.
+     *
+     * <p>By default, each process gets two threads of its own, which block reading its STDOUT and
+     * STDERR. When enabled, the shared pump threads, of which there are at most as many as cores,
+     * take turns on the output of all processes, one chunk at a time, so that a chatty process can't
+     * starve the others. This keeps the number of threads flat when running many processes, at the
+     * cost of polling: output which follows a long silence may be picked up a few milliseconds later.
+     *
+     * <p>Output streams added via {@link #addStdOut(OutputStream)} and {@link
+     * #addStdErr(OutputStream)} must not block for long, as they'd hold up the output of all
+     * processes.
+     *
+     * @param flag {@code true} to use the shared pump threads, {@code false} (the default) for
+     *     threads of the process' own
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setMultiplexedStreamPumps(boolean flag) {
+        multiplexedStreamPumps = flag;
+        return this;
+    }
+
+    /**
+     * Returns whether STDOUT and STDERR are copied by the pump threads shared by all processes.
+     *
+     * @return {@code true} if the shared pump threads are used
+     */
+    @SuppressWarnings("unused")
+    public boolean isMultiplexedStreamPumps() {
+        return multiplexedStreamPumps;
+    }
+
+    /**
+     * Enables or disables capturing the raw bytes written to STDOUT, for programs returning binary
+     * data, such as image or compression tools.
+     *
+     * <p>When enabled, STDOUT is kept off-heap as is, without splitting it into lines or decoding
+     * it, and can be read via {@link ManagedProcess#getCapturedStdOut()}. It is then neither logged
+     * nor part of {@link ManagedProcess#getConsole()}, which only keep STDERR. Output streams added
+     * via {@link #addStdOut(OutputStream)} still receive it.
+     *
+     * @param flag {@code true} to capture STDOUT, {@code false} (the default) to log it
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setCaptureStdOut(boolean flag) {
+        captureStdOut = flag;
+        return this;
+    }
+
+    /**
+     * Returns whether the raw bytes written to STDOUT are captured.
+     *
+     * @return {@code true} if STDOUT is captured
+     */
+    @SuppressWarnings("unused")
+    public boolean isCaptureStdOut() {
+        return captureStdOut;
+    }
+
+    /**
+     * Has the OS write STDOUT straight to a file, which is truncated first, instead of piping it
+     * into the JVM.
+     *
+     * <p>No bytes are then copied through a pipe, and STDOUT isn't logged. To still keep the
+     * console, wait for console messages and feed output streams added via {@link
+     * #addStdOut(OutputStream)}, the file is tailed by a few pump threads shared by all processes.
+     *
+     * @param file the file to write STDOUT to, which must not also receive STDERR
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder redirectStdOutTo(Path file) {
+        stdOutRedirect = ProcessBuilder.Redirect.to(file.toFile());
+        return this;
+    }
+
+    /**
+     * Like {@link #redirectStdOutTo(Path)}, but appends to the file instead of truncating it.
+     *
+     * @param file the file to append STDOUT to, which must not also receive STDERR
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder appendStdOutTo(Path file) {
+        stdOutRedirect = ProcessBuilder.Redirect.appendTo(file.toFile());
+        return this;
+    }
+
+    /**
+     * Like {@link #redirectStdOutTo(Path)}, but for STDERR.
+     *
+     * @param file the file to write STDERR to, which must not also receive STDOUT
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder redirectStdErrTo(Path file) {
+        stdErrRedirect = ProcessBuilder.Redirect.to(file.toFile());
+        return this;
+    }
+
+    /**
+     * Like {@link #appendStdOutTo(Path)}, but for STDERR.
+     *
+     * @param file the file to append STDERR to, which must not also receive STDOUT
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder appendStdErrTo(Path file) {
+        stdErrRedirect = ProcessBuilder.Redirect.appendTo(file.toFile());
+        return this;
+    }
+
+    /**
+     * Feeds the output streams added via {@link #addStdOut(OutputStream)} and {@link
+     * #addStdErr(OutputStream)}, and the SLF4J logging of the output, each on a thread of its own
+     * through an {@link AsyncOutputStream}, so a slow sink can't stall the process.
+     *
+     * <p>By default, they're written to on the stream pump threads, and a slow one, e.g. a log
+     * appender writing over the network, keeps the pump from emptying the pipe, which sooner or
+     * later blocks the process on its next write. The console and waiting for console messages
+     * aren't affected by this setting, they're always fed right away. Each sink is delivered
+     * everything before {@link ManagedProcess#waitForExit()} returns, unless that takes longer than
+     * {@link #setOutputDrainTimeoutMs(long)}. How much output was discarded is reported by {@link
+     * ManagedProcess#getDroppedOutputBytes()}.
+     *
+     * @param bufferSize the buffer size in bytes of each sink, or non-positive (the default) to
+     *     write to the sinks on the stream pump threads
+     * @param overflowPolicy what to do when the buffer of a sink is full
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setAsyncSinks(int bufferSize, OverflowPolicy overflowPolicy) {
+        asyncSinkBufferSize = bufferSize;
+        asyncSinkOverflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Returns the buffer size of each asynchronously fed output sink.
+     *
+     * @return the buffer size in bytes, or non-positive if the sinks are fed on the stream pump
+     *     threads
+     */
+    @SuppressWarnings("unused")
+    public int getAsyncSinkBufferSize() {
+        return asyncSinkBufferSize;
+    }
+
+    /**
+     * Returns what asynchronously fed output sinks do when their buffer is full.
+     *
+     * @return the overflow policy
+     */
+    @SuppressWarnings("unused")
+    public OverflowPolicy getAsyncSinkOverflowPolicy() {
+        return asyncSinkOverflowPolicy;
+    }
+
+    /**
+     * Sets how long delivering the output still buffered for the asynchronously fed sinks, and
+     * logging the lines still queued for the shared logging thread, may delay reporting the exit
+     * of the process, see {@link #setAsyncSinks(int, OverflowPolicy)} and {@link
+     * #setAsyncLogging(boolean)}.
+     *
+     * <p>A sink which stalls, e.g. a log appender whose network connection hangs, would otherwise
+     * keep {@link ManagedProcess#waitForExit()} from ever returning. Output not delivered in time
+     * is discarded and counted by {@link ManagedProcess#getDroppedOutputBytes()} and {@link
+     * ManagedProcess#getDroppedLogLines()}.
+     *
+     * @param outputDrainTimeoutMs the timeout in milliseconds, 10 seconds by default
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setOutputDrainTimeoutMs(long outputDrainTimeoutMs) {
+        if (outputDrainTimeoutMs < 0) {
+            throw new IllegalArgumentException("outputDrainTimeoutMs must be >= 0");
+        }
+        this.outputDrainTimeoutMs = outputDrainTimeoutMs;
+        return this;
+    }
+
+    /**
+     * Returns how long delivering the buffered output may delay reporting the exit of the process.
+     *
+     * @return the timeout in milliseconds
+     */
+    @SuppressWarnings("unused")
+    public long getOutputDrainTimeoutMs() {
+        return outputDrainTimeoutMs;
+    }
+
+    /**
+     * Enables or disables logging the output lines on a logging thread shared by all processes,
+     * instead of on the stream pump threads.
+     *
+     * <p>The pump threads then only queue each line and go back to reading the output of the
+     * process right away, and the logging thread takes the lines out of the queue in batches, and
+     * logs them one by one. What happens when the queue is full is up to {@link
+     * #setAsyncLoggingOverflowPolicy(OverflowPolicy)}. All lines are logged before {@link
+     * ManagedProcess#waitForExit()} returns, unless that takes longer than {@link
+     * #setOutputDrainTimeoutMs(long)}.
+     *
+     * @param flag {@code true} to log on the shared logging thread, {@code false} (the default) to
+     *     log on the pump threads
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setAsyncLogging(boolean flag) {
+        asyncLogging = flag;
+        return this;
+    }
+
+    /**
+     * Returns whether the output lines are logged on a logging thread shared by all processes.
+     *
+     * @return {@code true} if the shared logging thread is used
+     */
+    @SuppressWarnings("unused")
+    public boolean isAsyncLogging() {
+        return asyncLogging;
+    }
+
+    /**
+     * Sets what the stream pump threads do when the queue of the shared logging thread is full, if
+     * {@link #setAsyncLogging(boolean)} is enabled. Lines discarded are reported by {@link
+     * ManagedProcess#getDroppedLogLines()}.
+     *
+     * @param overflowPolicy the overflow policy, {@link OverflowPolicy#BLOCK} by default
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setAsyncLoggingOverflowPolicy(OverflowPolicy overflowPolicy) {
+        asyncLoggingOverflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Returns what the stream pump threads do when the queue of the shared logging thread is full.
+     *
+     * @return the overflow policy
+     */
+    @SuppressWarnings("unused")
+    public OverflowPolicy getAsyncLoggingOverflowPolicy() {
+        return asyncLoggingOverflowPolicy;
+    }
+
+    /**
+     * Sets on which thread the {@link OutputStreamLogDispatcher} is called, if {@link
+     * #setAsyncLogging(boolean)} is enabled.
+     *
+     * <p>On the stream pump threads (the default), lines it suppresses are never queued. On the
+     * shared logging thread, an expensive dispatcher, e.g. one parsing every line, doesn't slow down
+     * reading the output of the process; it must then be thread-safe, as it's called on a different
+     * thread than the pump threads.
+     *
+     * @param flag {@code true} to call the dispatcher on the shared logging thread, {@code false} to
+     *     call it on the pump threads
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setDispatchOnLoggingThread(boolean flag) {
+        dispatchOnLoggingThread = flag;
+        return this;
+    }
+
+    /**
+     * Returns whether the {@link OutputStreamLogDispatcher} is called on the shared logging thread.
+     *
+     * @return {@code true} if it's called on the shared logging thread
+     */
+    @SuppressWarnings("unused")
+    public boolean isDispatchOnLoggingThread() {
+        return dispatchOnLoggingThread;
+    }
+
     /**
      * Builds a {@link ManagedProcess} from the current configuration.
      *
@@ -395,7 +855,26 @@ public class ManagedProcessBuilder {
                 stdOuts,
                 stdErrs,
                 listener,
-                isSuccessExitValueChecker);
+                isSuccessExitValueChecker,
+                threadFactory != null ? threadFactory : ThreadFactories.defaultFactory(),
+                timeoutMs,
+                idleOutputTimeoutMs,
+                asyncExitNotification,
+                multiplexedStreamPumps,
+                captureStdOut,
+                stdOutRedirect,
+                stdErrRedirect,
+                asyncSinkBufferSize,
+                asyncSinkOverflowPolicy,
+                outputDrainTimeoutMs,
+                asyncLogging ? asyncLoggingOverflowPolicy : null,
+                dispatchOnLoggingThread,
+                List.copyOf(readinessProbes),
+                notifySocketVariable,
+                spawnScheduler,
+                spawnPriority,
+                lifecycleMetrics,
+                processSampler);
     }
 
     /**
@@ -434,6 +913,165 @@ public class ManagedProcessBuilder {
         return this;
     }
 
+    /**
+     * Adds a probe which tells whether the process is ready, see {@link
+     * ManagedProcess#startAndWaitForReadinessMaxMs(long)}. The process is ready once all its
+     * probes are.
+     *
+     * @param probe the probe, e.g. {@link ReadinessProbe#tcpPort(int)}
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder addReadinessProbe(ReadinessProbe probe) {
+        readinessProbes.add(probe);
+        return this;
+    }
+
+    /**
+     * Returns the probes which tell whether the process is ready.
+     *
+     * @return the probes
+     */
+    @SuppressWarnings("unused")
+    public List<ReadinessProbe> getReadinessProbes() {
+        return readinessProbes;
+    }
+
+    /**
+     * Has each start of the process create a Unix domain socket the process can report its state
+     * on, in the style of systemd's {@code NOTIFY_SOCKET}, and pass its path in the given
+     * environment variable.
+     *
+     * <p>The process connects to the socket and writes {@code KEY=VALUE} lines:
+     *
+     * <ul>
+     *   <li>{@code READY=1} once it's ready; {@link ManagedProcess#startAndWaitForReadinessMaxMs(long)}
+     *       then waits for it, in addition to the readiness probes, if any, without polling
+     *   <li>{@code STATUS=...} with a free-form status, see {@link ManagedProcess#getNotifyStatus()}
+     *   <li>{@code WATCHDOG=1} as a keep-alive, which counts as output for {@link
+     *       #setIdleOutputTimeoutMs(long)}
+     * </ul>
+     *
+     * <p>Unlike systemd's, the socket is a stream socket, as Java only supports those for Unix
+     * domain sockets, so {@code sd_notify()} of libsystemd can't talk to it. Not supported for
+     * stages of a {@link ManagedPipeline}.
+     *
+     * @param name the name of the environment variable, e.g. {@code "NOTIFY_SOCKET"}, or {@code
+     *     null} (the default) to not create a socket
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setNotifySocketVariable(@Nullable String name) {
+        notifySocketVariable = name;
+        return this;
+    }
+
+    /**
+     * Returns the environment variable passing the path of the notify socket to the process.
+     *
+     * @return the name of the variable, or {@code null} if no socket is created
+     */
+    @SuppressWarnings("unused")
+    public @Nullable String getNotifySocketVariable() {
+        return notifySocketVariable;
+    }
+
+    /**
+     * Sets the scheduler launches of the process must be admitted by, which throttles launching
+     * many processes at once. Typically one scheduler is shared by all builders of an application.
+     *
+     * @param spawnScheduler the scheduler, or {@code null} (the default) to launch right away
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setSpawnScheduler(@Nullable SpawnScheduler spawnScheduler) {
+        this.spawnScheduler = spawnScheduler;
+        return this;
+    }
+
+    /**
+     * Returns the scheduler launches of the process must be admitted by.
+     *
+     * @return the scheduler, or {@code null} if launched right away
+     */
+    @SuppressWarnings("unused")
+    public @Nullable SpawnScheduler getSpawnScheduler() {
+        return spawnScheduler;
+    }
+
+    /**
+     * Sets the priority of launching the process with the {@link #setSpawnScheduler(SpawnScheduler)
+     * spawn scheduler}: waiting launches with a higher priority are admitted first. Defaults to 0.
+     *
+     * @param spawnPriority the priority
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setSpawnPriority(int spawnPriority) {
+        this.spawnPriority = spawnPriority;
+        return this;
+    }
+
+    /**
+     * Returns the priority of launching the process with the spawn scheduler.
+     *
+     * @return the priority
+     */
+    @SuppressWarnings("unused")
+    public int getSpawnPriority() {
+        return spawnPriority;
+    }
+
+    /**
+     * Sets what receives the {@link LifecyclePhase}s the process goes through, e.g. a {@link
+     * LatencyHistograms} shared by all builders, to tell where the time of slow starts goes.
+     *
+     * <p>The phases of each process are also available from {@link
+     * ManagedProcess#getPhaseNanos(LifecyclePhase)}, regardless of this.
+     *
+     * @param lifecycleMetrics the metrics, or {@code null} (the default) for none
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setLifecycleMetrics(@Nullable LifecycleMetrics lifecycleMetrics) {
+        this.lifecycleMetrics = lifecycleMetrics;
+        return this;
+    }
+
+    /**
+     * Returns what receives the phases the process goes through.
+     *
+     * @return the metrics, or {@code null} if none
+     */
+    @SuppressWarnings("unused")
+    public @Nullable LifecycleMetrics getLifecycleMetrics() {
+        return lifecycleMetrics;
+    }
+
+    /**
+     * Sets the sampler which records the CPU time, RSS, threads and I/O of the process while it
+     * runs, see {@link ManagedProcess#getResourceSamples()}. Typically one sampler is shared by all
+     * builders of an application.
+     *
+     * @param processSampler the sampler, or {@code null} (the default) for none
+     * @return this builder instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public ManagedProcessBuilder setProcessSampler(@Nullable ProcessSampler processSampler) {
+        this.processSampler = processSampler;
+        return this;
+    }
+
+    /**
+     * Returns the sampler which records the resource usage of the process.
+     *
+     * @return the sampler, or {@code null} if none
+     */
+    @SuppressWarnings("unused")
+    public @Nullable ProcessSampler getProcessSampler() {
+        return processSampler;
+    }
+
     /**
      * Sets the predicate that determines whether an exit value is considered success.
      *
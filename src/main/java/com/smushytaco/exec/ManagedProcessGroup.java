@@ -0,0 +1,365 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Group of {@link ManagedProcess}es which are started, awaited and destroyed together, e.g. the
+ * daemons a test suite needs.
+ *
+ * <p>Members are started in up to a given number of chains: once a member of a chain is ready,
+ * the chain starts the next member not started yet, so no more than that number of them are
+ * starting at the same time; a member counts as starting until it's ready, see {@link
+ * #startAsync(long)}. Their exit and readiness are awaited without blocking any thread; a few
+ * shared threads only launch the next members. {@link #destroy(long)} destroys all members at
+ * once, so tearing down a group takes about as long as its slowest member takes to exit, instead
+ * of the sum of all of them.
+ *
+ * @author Nikan Radan
+ */
+public class ManagedProcessGroup {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManagedProcessGroup.class);
+
+    static final int STARTER_THREADS = 4;
+    private static final ThreadPoolExecutor STARTERS = createStarters();
+
+    private final List<ManagedProcess> members;
+    private final int maxParallelStarts;
+    private final CompletableFuture<ManagedProcessGroup> allReady = new CompletableFuture<>();
+    private final CompletableFuture<ManagedProcess> anyFailed = new CompletableFuture<>();
+    private final CompletableFuture<ManagedProcessGroup> allExited = new CompletableFuture<>();
+    private final AtomicInteger notReady;
+    private final AtomicInteger notExited;
+    private final AtomicIntegerArray exited;
+    private final AtomicInteger nextToStart = new AtomicInteger();
+    private volatile boolean starting;
+    private volatile boolean destroying;
+
+    /**
+     * Creates a group of the given processes, none of which must have been started yet.
+     *
+     * @param maxParallelStarts how many members may be starting at the same time, at least 1
+     * @param members the members of the group
+     */
+    public ManagedProcessGroup(int maxParallelStarts, Collection<ManagedProcess> members) {
+        if (maxParallelStarts < 1) {
+            throw new IllegalArgumentException("maxParallelStarts must be at least 1");
+        }
+        this.members = List.copyOf(members);
+        this.maxParallelStarts = maxParallelStarts;
+        notReady = new AtomicInteger(this.members.size());
+        notExited = new AtomicInteger(this.members.size());
+        exited = new AtomicIntegerArray(this.members.size());
+        if (this.members.isEmpty()) {
+            allExited.complete(this);
+        }
+        for (int i = 0; i < this.members.size(); i++) {
+            ManagedProcess member = this.members.get(i);
+            int index = i;
+            member.onExit()
+                    .whenComplete(
+                            (exitValue, e) -> {
+                                if (e != null) {
+                                    memberFailed(member, e);
+                                }
+                                exited(index);
+                            });
+        }
+    }
+
+    /**
+     * Creates a group of the given processes, none of which must have been started yet.
+     *
+     * @param maxParallelStarts how many members may be starting at the same time, at least 1
+     * @param members the members of the group
+     */
+    public ManagedProcessGroup(int maxParallelStarts, ManagedProcess... members) {
+        this(maxParallelStarts, List.of(members));
+    }
+
+    private static ThreadPoolExecutor createStarters() {
+        ThreadPoolExecutor starters =
+                new ThreadPoolExecutor(
+                        STARTER_THREADS,
+                        STARTER_THREADS,
+                        30,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        r -> ThreadFactories.newThread(
+                                Executors.defaultThreadFactory(), r, "ExecGroupStarter-", true));
+        starters.allowCoreThreadTimeOut(true);
+        return starters;
+    }
+
+    /**
+     * Returns the members of this group.
+     *
+     * @return the members, in the order they're started in
+     */
+    public List<ManagedProcess> getMembers() {
+        return members;
+    }
+
+    /**
+     * Starts all members of the group, in order, and returns {@link #allReady()}.
+     *
+     * <p>A member with readiness probes, or a notify socket, is started with {@link
+     * ManagedProcess#startAndWaitForReadinessAsync(long)}, and counts as starting until it's ready.
+     * Any other member is started with {@link ManagedProcess#startAsync()}, and counts as starting
+     * until its streams are pumped. Once a member failed to start, the members not started yet are
+     * not started anymore; those already started are left running, use {@link #destroy(long)} to
+     * stop them.
+     *
+     * @param maxWaitForReadyMs maximum time to wait, in milliseconds, for each member to be ready
+     * @return see {@link #allReady()}
+     * @throws IllegalStateException if the group was already started
+     */
+    public synchronized CompletableFuture<ManagedProcessGroup> startAsync(long maxWaitForReadyMs) {
+        if (starting) {
+            throw new IllegalStateException(this + " was already started");
+        }
+        starting = true;
+        if (members.isEmpty()) {
+            allReady.complete(this);
+        }
+        int chains = Math.min(maxParallelStarts, members.size());
+        logger.info("Starting {}, {} at a time", this, chains);
+        for (int i = 0; i < chains; i++) {
+            STARTERS.execute(() -> startNext(maxWaitForReadyMs));
+        }
+        return allReady();
+    }
+
+    /**
+     * Like {@link #startAsync(long)}, but waits (blocks) until all members are ready.
+     *
+     * @param maxWaitForReadyMs maximum time to wait, in milliseconds, for each member to be ready
+     * @return The current instance.
+     * @throws ManagedProcessException if any member failed to start, or wasn't ready in time
+     * @throws ManagedProcessInterruptedException if interrupted while waiting
+     */
+    public ManagedProcessGroup start(long maxWaitForReadyMs)
+            throws ManagedProcessException, ManagedProcessInterruptedException {
+        try {
+            return startAsync(maxWaitForReadyMs).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ManagedProcessInterruptedException.withCause("start", toString(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ManagedProcessException cause) {
+                throw cause;
+            }
+            throw new ManagedProcessException("Starting " + this + " failed", e.getCause());
+        }
+    }
+
+    // Starts the next member of a chain, and once it's ready, the one after it
+    private void startNext(long maxWaitForReadyMs) {
+        int next;
+        if (allReady.isDone() || destroying || (next = nextToStart.getAndIncrement()) >= members.size()) {
+            // Members which will never be started won't ever exit either
+            skipUnstarted();
+            return;
+        }
+        ManagedProcess member = members.get(next);
+        CompletableFuture<Boolean> started;
+        try {
+            started = startMember(member, maxWaitForReadyMs);
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        // Launching the next member mustn't hold up the thread which made this one ready
+        started.whenCompleteAsync(
+                (ready, e) -> {
+                    memberStarted(next, member, ready, e, maxWaitForReadyMs);
+                    startNext(maxWaitForReadyMs);
+                },
+                STARTERS);
+    }
+
+    private void memberStarted(
+            int index,
+            ManagedProcess member,
+            @Nullable Boolean ready,
+            @Nullable Throwable failure,
+            long maxWaitForReadyMs) {
+        if (destroying && member.isAlive()) {
+            // Started while the group was being destroyed
+            member.destroyAsync();
+        }
+        if (failure != null) {
+            memberFailed(
+                    member,
+                    failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+        } else if (!Boolean.TRUE.equals(ready)) {
+            memberFailed(
+                    member,
+                    new ManagedProcessException(
+                            member.getProcLongName() + " wasn't ready within " + maxWaitForReadyMs + "ms"));
+        } else if (notReady.decrementAndGet() == 0) {
+            allReady.complete(this);
+        }
+        if (!member.isAlive()) {
+            // Never launched if it failed to, so it won't ever exit either
+            exited(index);
+        }
+    }
+
+    private void skipUnstarted() {
+        int next;
+        while ((next = nextToStart.getAndIncrement()) < members.size()) {
+            exited(next);
+        }
+    }
+
+    private static CompletableFuture<Boolean> startMember(ManagedProcess member, long maxWaitForReadyMs) {
+        if (member.hasReadinessChecks()) {
+            return member.startAndWaitForReadinessAsync(maxWaitForReadyMs).thenApply(Readiness::isReady);
+        }
+        return member.startAsync().thenApply(started -> true).toCompletableFuture();
+    }
+
+    private void memberFailed(ManagedProcess member, Throwable cause) {
+        // Members exiting because they were destroyed don't count as failed
+        if (!destroying && anyFailed.complete(member)) {
+            logger.warn("{} of {} failed", member.getProcLongName(), this, cause);
+        }
+        allReady.completeExceptionally(
+                cause instanceof ManagedProcessException
+                        ? cause
+                        : new ManagedProcessException(member.getProcLongName() + " failed", cause));
+    }
+
+    private void exited(int index) {
+        if (exited.compareAndSet(index, 0, 1) && notExited.decrementAndGet() == 0) {
+            allExited.complete(this);
+        }
+    }
+
+    /**
+     * Returns a future which completes once all members are started and ready, see {@link
+     * #startAsync(long)}.
+     *
+     * @return a future which completes with this group, or exceptionally with a {@link
+     *     ManagedProcessException} if any member failed to start, or wasn't ready in time
+     */
+    public CompletableFuture<ManagedProcessGroup> allReady() {
+        return allReady.copy();
+    }
+
+    /**
+     * Returns a future which completes once the first member failed: it failed to start, wasn't
+     * ready in time, or exited with an exit value which isn't considered success. Members exiting
+     * because of {@link #destroy(long)} don't count as failed.
+     *
+     * @return a future which completes with the failed member, and never if none fails
+     */
+    public CompletableFuture<ManagedProcess> anyFailed() {
+        return anyFailed.copy();
+    }
+
+    /**
+     * Returns a future which completes once all members exited, or won't be started anymore, as
+     * another member failed to start.
+     *
+     * @return a future which completes with this group
+     */
+    public CompletableFuture<ManagedProcessGroup> allExited() {
+        return allExited.copy();
+    }
+
+    /**
+     * Returns whether any member of the group is still running.
+     *
+     * @return {@code true} if any member is alive
+     */
+    public boolean isAlive() {
+        return members.stream().anyMatch(ManagedProcess::isAlive);
+    }
+
+    /**
+     * Kills all members of the group which are still running, in parallel, and doesn't start the
+     * ones not started yet.
+     *
+     * @return a future which completes with this group once all members exited, see {@link
+     *     #allExited()}
+     */
+    public CompletableFuture<ManagedProcessGroup> destroyAsync() {
+        destroying = true;
+        allReady.completeExceptionally(new ManagedProcessException(this + " was destroyed"));
+        // Including all of them if the group was never started
+        skipUnstarted();
+        for (ManagedProcess member : members) {
+            if (member.isAlive()) {
+                // Exited by itself in the meantime otherwise, which allExited covers as well
+                member.destroyAsync();
+            }
+        }
+        return allExited();
+    }
+
+    /**
+     * Kills all members of the group which are still running, in parallel, and waits (blocks)
+     * until they all exited, but at most {@code maxWaitMs} in total.
+     *
+     * @param maxWaitMs maximum time to wait, in milliseconds, for all members to exit
+     * @throws ManagedProcessException if any member was still running after {@code maxWaitMs}
+     * @throws ManagedProcessInterruptedException if interrupted while waiting
+     */
+    public void destroy(long maxWaitMs) throws ManagedProcessException, ManagedProcessInterruptedException {
+        try {
+            destroyAsync().get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ManagedProcessInterruptedException.withCause("destroy", toString(), e);
+        } catch (ExecutionException e) {
+            throw new ManagedProcessException("Destroying " + this + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            List<String> alive = new ArrayList<>();
+            for (ManagedProcess member : members) {
+                if (member.isAlive()) {
+                    alive.add(member.getProcLongName());
+                }
+            }
+            throw new ManagedProcessException(
+                    "Still running " + maxWaitMs + "ms after destroying " + this + ": " + alive);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Group of " + members.size() + " processes";
+    }
+}
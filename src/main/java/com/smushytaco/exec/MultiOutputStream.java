@@ -18,9 +18,12 @@ package com.smushytaco.exec;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * OutputStream "Multiplexer" which delegates to a list of other registered OutputStreams.
@@ -29,6 +32,11 @@ import java.util.List;
  * implementation is synchronous, so the added OutputStreams should be "fast" in order not to block
  * each other.
  *
+ * <p>The delegates are kept in an immutable array, which adding or removing one replaces
+ * atomically. Writing is therefore lock-free and always goes to a consistent snapshot of the
+ * delegates, even while others are added or removed concurrently; a delegate added or removed
+ * during a write may or may not receive that write.
+ *
  * <p>Exceptions thrown by added OutputStreams are handled gracefully: They at first do not prevent
  * delegating to the other registered OutputStreams, but then are rethrown after we've pushed to
  * delegates (possibly containing multiple causes).
@@ -37,14 +45,90 @@ import java.util.List;
  */
 public class MultiOutputStream extends OutputStream {
 
+    private static final OutputStream[] NONE = new OutputStream[0];
+
+    private final AtomicReference<OutputStream[]> delegates = new AtomicReference<>(NONE);
+
     /**
-     * The list of underlying {@link OutputStream} instances that this multiplexer delegates to.
+     * A view of the underlying {@link OutputStream} instances that this multiplexer delegates to.
      *
      * <p>Each stream receives all write, flush, and close operations in the order they were added.
      * If any stream throws an {@link IOException}, it is recorded but does not prevent other
      * streams from being written to.
+     *
+     * <p>Changing the list replaces the delegates atomically, like {@link
+     * #addOutputStream(OutputStream)} and {@link #removeOutputStream(OutputStream)} do, which
+     * should be preferred. Its iterators go over a snapshot of the delegates and can't remove.
      */
-    protected final List<OutputStream> streams = new ArrayList<>();
+    protected final List<OutputStream> streams =
+            new AbstractList<>() {
+                @Override
+                public OutputStream get(int index) {
+                    return delegates.get()[index];
+                }
+
+                @Override
+                public int size() {
+                    return delegates.get().length;
+                }
+
+                @Override
+                public Iterator<OutputStream> iterator() {
+                    return List.of(delegates.get()).iterator();
+                }
+
+                @Override
+                public boolean add(OutputStream delegate) {
+                    addOutputStream(delegate);
+                    return true;
+                }
+
+                @Override
+                public void add(int index, OutputStream delegate) {
+                    delegates.updateAndGet(
+                            current -> {
+                                Objects.checkIndex(index, current.length + 1);
+                                OutputStream[] added = new OutputStream[current.length + 1];
+                                System.arraycopy(current, 0, added, 0, index);
+                                added[index] = delegate;
+                                System.arraycopy(
+                                        current, index, added, index + 1, current.length - index);
+                                return added;
+                            });
+                }
+
+                @Override
+                public OutputStream set(int index, OutputStream delegate) {
+                    return delegates.getAndUpdate(
+                                    current -> {
+                                        Objects.checkIndex(index, current.length);
+                                        OutputStream[] replaced = current.clone();
+                                        replaced[index] = delegate;
+                                        return replaced;
+                                    })[index];
+                }
+
+                @Override
+                public OutputStream remove(int index) {
+                    return delegates.getAndUpdate(
+                                    current -> {
+                                        Objects.checkIndex(index, current.length);
+                                        return without(current, index);
+                                    })[index];
+                }
+
+                @Override
+                public boolean remove(Object delegate) {
+                    OutputStream[] previous =
+                            delegates.getAndUpdate(current -> without(current, delegate));
+                    return Arrays.asList(previous).contains(delegate);
+                }
+
+                @Override
+                public void clear() {
+                    delegates.set(NONE);
+                }
+            };
 
     /**
      * Creates an empty {@code MultiOutputStream} with no delegate streams.
@@ -60,7 +144,7 @@ public class MultiOutputStream extends OutputStream {
      */
     @SuppressWarnings("unused")
     public MultiOutputStream(OutputStream... delegates) {
-        streams.addAll(Arrays.asList(delegates));
+        this.delegates.set(delegates.clone());
     }
 
     /**
@@ -72,8 +156,13 @@ public class MultiOutputStream extends OutputStream {
      * @return this {@code MultiOutputStream} instance for chaining
      */
     @SuppressWarnings("UnusedReturnValue")
-    public synchronized MultiOutputStream addOutputStream(OutputStream delegate) {
-        streams.add(delegate);
+    public MultiOutputStream addOutputStream(OutputStream delegate) {
+        delegates.updateAndGet(
+                current -> {
+                    OutputStream[] added = Arrays.copyOf(current, current.length + 1);
+                    added[current.length] = delegate;
+                    return added;
+                });
         return this;
     }
 
@@ -86,15 +175,31 @@ public class MultiOutputStream extends OutputStream {
      * @return this {@code MultiOutputStream} instance for chaining
      */
     @SuppressWarnings("UnusedReturnValue")
-    public synchronized MultiOutputStream removeOutputStream(OutputStream delegate) {
-        streams.remove(delegate);
+    public MultiOutputStream removeOutputStream(OutputStream delegate) {
+        delegates.updateAndGet(current -> without(current, delegate));
         return this;
     }
 
+    private static OutputStream[] without(OutputStream[] current, Object delegate) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(delegate)) {
+                return without(current, i);
+            }
+        }
+        return current;
+    }
+
+    private static OutputStream[] without(OutputStream[] current, int index) {
+        OutputStream[] removed = new OutputStream[current.length - 1];
+        System.arraycopy(current, 0, removed, 0, index);
+        System.arraycopy(current, index + 1, removed, index, current.length - index - 1);
+        return removed;
+    }
+
     @Override
     public void write(int b) throws IOException {
         MultiCauseIOException mex = null;
-        for (OutputStream stream : streams) {
+        for (OutputStream stream : delegates.get()) {
             try {
                 stream.write(b);
             } catch (IOException e) {
@@ -112,7 +217,7 @@ public class MultiOutputStream extends OutputStream {
     @Override
     public void write(byte[] b) throws IOException {
         MultiCauseIOException mex = null;
-        for (OutputStream stream : streams) {
+        for (OutputStream stream : delegates.get()) {
             try {
                 stream.write(b);
             } catch (IOException e) {
@@ -130,7 +235,7 @@ public class MultiOutputStream extends OutputStream {
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
         MultiCauseIOException mex = null;
-        for (OutputStream stream : streams) {
+        for (OutputStream stream : delegates.get()) {
             try {
                 stream.write(b, off, len);
             } catch (IOException e) {
@@ -148,7 +253,7 @@ public class MultiOutputStream extends OutputStream {
     @Override
     public void flush() throws IOException {
         MultiCauseIOException mex = null;
-        for (OutputStream stream : streams) {
+        for (OutputStream stream : delegates.get()) {
             try {
                 stream.flush();
             } catch (IOException e) {
@@ -166,7 +271,7 @@ public class MultiOutputStream extends OutputStream {
     @Override
     public void close() throws IOException {
         MultiCauseIOException mex = null;
-        for (OutputStream stream : streams) {
+        for (OutputStream stream : delegates.get()) {
             try {
                 stream.close();
             } catch (IOException e) {
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * OutputStream which watches out for the occurrence of any of several keywords ({@linkplain
+ * String}s) at once.
+ *
+ * <p>Unlike one {@link CheckingConsoleOutputStream} per keyword, which each decode the same output
+ * separately, all keywords are searched for in a single pass, by an Aho-Corasick automaton.
+ * Keywords may overlap, e.g. {@code "error"} and {@code "fatal error"}; when several end at the
+ * same position, the callback is called for the longest first.
+ *
+ * @author Nikan Radan
+ */
+public final class MultiPatternConsoleOutputStream extends ConsoleMatchingOutputStream {
+    private final List<String> literals;
+    private final AhoCorasick automaton;
+    private final Predicate<String> onMatch;
+
+    /**
+     * The public constructor.
+     *
+     * @param literals the literals that are searched for, none of them empty.
+     * @param onMatch called with the literal, as given, whenever one is found. If it returns {@code false}, it stops
+     *                searching, if {@code true}, it continues to search for all the literals.
+     * @param charset the {@linkplain Charset} that's used.
+     *                If null it defaults to {@linkplain Charset#defaultCharset()}.
+     */
+    public MultiPatternConsoleOutputStream(
+            Collection<String> literals, Predicate<String> onMatch, @Nullable Charset charset) {
+        super(charset);
+        if (literals.isEmpty()) {
+            throw new IllegalArgumentException("literals must not be empty");
+        }
+        this.literals = List.copyOf(literals);
+        this.onMatch = onMatch;
+        List<String> normalized = new ArrayList<>(this.literals.size());
+        for (String literal : this.literals) {
+            normalized.add(normalizeNl(literal));
+        }
+        // Either all literals are searched for as bytes, or all as chars: the first pass settles
+        // which, as any literal which can't be encoded exactly switches to chars
+        for (String literal : normalized) {
+            toBytePattern(literal);
+        }
+        List<String> patterns = new ArrayList<>(normalized.size());
+        for (String literal : normalized) {
+            patterns.add(toBytePattern(literal));
+        }
+        this.automaton = new AhoCorasick(patterns);
+    }
+
+    @Override
+    void accept(char c) {
+        for (int match : automaton.accept(c)) {
+            if (!onMatch.test(literals.get(match))) {
+                finish();
+                return;
+            }
+        }
+    }
+}
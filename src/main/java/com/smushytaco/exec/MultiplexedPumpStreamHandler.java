@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.apache.commons.exec.ExecuteStreamHandler;
+import org.apache.commons.exec.StreamPumper;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@link ExecuteStreamHandler} which copies the STDOUT and STDERR of the process on the pump
+ * threads of the {@link StreamMultiplexer}, which are shared by all processes, instead of on two
+ * threads of its own like {@link StartSignalingPumpStreamHandler}.
+ *
+ * <p>Only the STDIN of the process, if any, still gets a thread of its own, as the input stream
+ * given to the process may block.
+ *
+ * @author Nikan Radan
+ */
+class MultiplexedPumpStreamHandler implements ExecuteStreamHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiplexedPumpStreamHandler.class);
+
+    private final OutputStream outputStream;
+    private final OutputStream errorOutputStream;
+    private final @Nullable InputStream inputStream;
+    private final CompletableFuture<@Nullable Void> started;
+    private final ThreadFactory threadFactory;
+
+    private @Nullable InputStream processOutputStream;
+    private @Nullable InputStream processErrorStream;
+    private @Nullable Thread inputThread;
+    private StreamMultiplexer.@Nullable Pump outputPump;
+    private StreamMultiplexer.@Nullable Pump errorPump;
+
+    MultiplexedPumpStreamHandler(
+            OutputStream outputStream,
+            OutputStream errorOutputStream,
+            @Nullable InputStream inputStream,
+            CompletableFuture<@Nullable Void> started,
+            ThreadFactory threadFactory) {
+        this.outputStream = outputStream;
+        this.errorOutputStream = errorOutputStream;
+        this.inputStream = inputStream;
+        this.started = started;
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public void setProcessInputStream(OutputStream os) {
+        if (inputStream != null) {
+            inputThread =
+                    ThreadFactories.newThread(
+                            threadFactory,
+                            new StreamPumper(inputStream, os, true),
+                            "CommonsExecStreamPumper-",
+                            true);
+        } else {
+            try {
+                os.close();
+            } catch (IOException e) {
+                logger.debug("Got exception while closing output stream", e);
+            }
+        }
+    }
+
+    @Override
+    public void setProcessOutputStream(InputStream is) {
+        processOutputStream = is;
+    }
+
+    @Override
+    public void setProcessErrorStream(InputStream is) {
+        processErrorStream = is;
+    }
+
+    @Override
+    public void start() {
+        if (processOutputStream != null) {
+            outputPump = StreamMultiplexer.register(processOutputStream, outputStream);
+        }
+        if (processErrorStream != null) {
+            errorPump = StreamMultiplexer.register(processErrorStream, errorOutputStream);
+        }
+        if (inputThread != null) {
+            inputThread.start();
+        }
+        started.complete(null);
+    }
+
+    @Override
+    public void stop() throws IOException {
+        if (outputPump != null) {
+            outputPump.finish();
+        }
+        if (errorPump != null) {
+            errorPump.finish();
+        }
+        if (inputThread != null) {
+            try {
+                inputThread.join();
+            } catch (InterruptedException e) {
+                inputThread.interrupt();
+                Thread.currentThread().interrupt();
+            }
+        }
+        errorOutputStream.flush();
+        outputStream.flush();
+    }
+}
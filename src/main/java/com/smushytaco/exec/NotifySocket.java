@@ -0,0 +1,260 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+
+/**
+ * Unix domain socket a process reports its state on, in the style of systemd's {@code
+ * NOTIFY_SOCKET}, see {@link ManagedProcessBuilder#setNotifySocketVariable(String)}.
+ *
+ * <p>The process connects to the socket and writes {@code KEY=VALUE} lines, such as {@code
+ * READY=1}, {@code STATUS=...} and {@code WATCHDOG=1}; it may connect once and keep writing, or
+ * connect again for every message. Unlike with systemd, this is a stream socket, as Java only
+ * supports those for Unix domain sockets, so {@code sd_notify()} of libsystemd, which sends
+ * datagrams, can't talk to it.
+ *
+ * <p>The sockets of all processes are served by one daemon thread waiting in a {@link Selector},
+ * which passes each line on to the {@link Listener} of its socket; nothing is polled.
+ *
+ * @author Nikan Radan
+ */
+final class NotifySocket implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotifySocket.class);
+
+    static final int MAX_LINE_LENGTH = 4096;
+
+    private static final Selector SELECTOR = openSelector();
+    private static final ConcurrentLinkedQueue<NotifySocket> PENDING = new ConcurrentLinkedQueue<>();
+
+    static {
+        ThreadFactories.newThread(Executors.defaultThreadFactory(), NotifySocket::run, "ExecNotifySocket-", true)
+                .start();
+    }
+
+    /** Receives what a process reports on its socket. */
+    interface Listener {
+        /**
+         * Called on the thread serving all sockets for every line reported, so must be quick.
+         *
+         * @param key the part before the first {@code =}
+         * @param value the part after it, empty if there is none
+         */
+        void onMessage(String key, String value);
+    }
+
+    private final Path directory;
+    private final Path path;
+    private final ServerSocketChannel server;
+    private final Listener listener;
+
+    private NotifySocket(Path directory, ServerSocketChannel server, Listener listener) {
+        this.directory = directory;
+        this.path = directory.resolve("notify.sock");
+        this.server = server;
+        this.listener = listener;
+    }
+
+    private static Selector openSelector() {
+        try {
+            return Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a socket in a new temporary directory and starts serving it.
+     *
+     * @param listener receives what's reported on the socket
+     * @return the socket
+     * @throws IOException if the socket can't be created
+     */
+    static NotifySocket open(Listener listener) throws IOException {
+        // A directory of its own, so no other user can replace the socket
+        Path directory = Files.createTempDirectory("exec-notify");
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        NotifySocket socket = new NotifySocket(directory, server, listener);
+        try {
+            server.bind(UnixDomainSocketAddress.of(socket.path));
+            server.configureBlocking(false);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        PENDING.add(socket);
+        SELECTOR.wakeup();
+        return socket;
+    }
+
+    /**
+     * Returns the path of the socket, to be passed to the process.
+     *
+     * @return the path
+     */
+    Path path() {
+        return path;
+    }
+
+    /** Stops serving the socket, and deletes it. */
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.debug("Could not close {}", path, e);
+        }
+        try {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}", path, e);
+        }
+        // Connections still open are closed when their next read fails or ends
+        SELECTOR.wakeup();
+    }
+
+    private static void run() {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_LINE_LENGTH);
+        while (true) {
+            try {
+                SELECTOR.select();
+                NotifySocket pending;
+                while ((pending = PENDING.poll()) != null) {
+                    try {
+                        pending.server.register(SELECTOR, SelectionKey.OP_ACCEPT, pending);
+                    } catch (ClosedChannelException e) {
+                        // Closed before it got served
+                    }
+                }
+                for (SelectionKey key : SELECTOR.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept(key);
+                    } else if (key.isReadable()) {
+                        read(key, buffer);
+                    }
+                }
+                SELECTOR.selectedKeys().clear();
+                for (SelectionKey key : SELECTOR.keys()) {
+                    if (key.attachment() instanceof Connection connection && !connection.socket.server.isOpen()) {
+                        close(key);
+                    }
+                }
+            } catch (Exception e) {
+                // Must not kill the thread, which serves the sockets of all processes
+                logger.warn("Unexpected error while serving notify sockets", e);
+            }
+        }
+    }
+
+    private static void accept(SelectionKey key) {
+        NotifySocket socket = (NotifySocket) key.attachment();
+        try {
+            SocketChannel channel = socket.server.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                channel.register(SELECTOR, SelectionKey.OP_READ, new Connection(socket));
+            }
+        } catch (IOException e) {
+            logger.debug("Could not accept a connection on {}", socket.path, e);
+        }
+    }
+
+    private static void read(SelectionKey key, ByteBuffer buffer) {
+        Connection connection = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        buffer.clear();
+        int length;
+        try {
+            length = channel.read(buffer);
+        } catch (IOException e) {
+            length = -1;
+        }
+        for (int i = 0; i < Math.max(length, 0); i++) {
+            connection.accept(buffer.get(i));
+        }
+        if (length < 0) {
+            connection.endLine();
+            close(key);
+        }
+    }
+
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            logger.debug("Could not close a connection", e);
+        }
+    }
+
+    private static final class Connection {
+        private final NotifySocket socket;
+        private final byte[] line = new byte[MAX_LINE_LENGTH];
+        private int length;
+
+        private Connection(NotifySocket socket) {
+            this.socket = socket;
+        }
+
+        private void accept(byte b) {
+            if (b == '\n') {
+                endLine();
+            } else if (length < line.length) {
+                line[length++] = b;
+            }
+        }
+
+        private void endLine() {
+            if (length == 0) {
+                return;
+            }
+            String message = new String(line, 0, length, StandardCharsets.UTF_8);
+            length = 0;
+            int equals = message.indexOf('=');
+            String key = equals < 0 ? message : message.substring(0, equals);
+            String value = equals < 0 ? "" : message.substring(equals + 1);
+            try {
+                socket.listener.onMessage(key, value);
+            } catch (RuntimeException e) {
+                logger.warn("Could not handle {} reported on {}", message, socket.path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+/**
+ * What seeing a certain message in the console of a process means, for {@link
+ * ManagedProcess#startAndWaitForAnyConsoleMessage(java.util.Map, long)}.
+ */
+public enum Outcome {
+    /**
+     * The process is up, e.g. a server printed that it's listening.
+     *
+     * <p>Waiting stops and returns the message.
+     */
+    READY,
+    /**
+     * The process won't get up, e.g. a server printed that its port is already in use.
+     *
+     * <p>Waiting stops with an exception right away, instead of running into the timeout.
+     */
+    FAILED
+}
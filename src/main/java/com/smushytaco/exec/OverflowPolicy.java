@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+/**
+ * What an {@link AsyncOutputStream} does when its buffer is full because the stream it delivers to
+ * can't keep up.
+ */
+public enum OverflowPolicy {
+    /**
+     * Blocks the writer until there is room again.
+     *
+     * <p>Nothing is lost, but a sink which stalls for long enough eventually stalls the process
+     * writing the output, like a synchronous sink would.
+     */
+    BLOCK,
+    /**
+     * Discards the oldest buffered bytes to make room.
+     *
+     * <p>Keeps the most recent output, which is usually the most relevant for logs.
+     */
+    DROP_OLDEST,
+    /**
+     * Discards the bytes which don't fit anymore.
+     *
+     * <p>Keeps the output up to the point where the sink stalled.
+     */
+    DROP_NEWEST
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * OutputStream which watches out for lines matching a regular expression, e.g. to learn the port a
+ * server reports it bound to from {@code listening on port (\d+)}.
+ *
+ * <p>Splits the output into lines at {@code \r}, {@code \n} and {@code \r\n}, like {@link
+ * org.apache.commons.exec.LogOutputStream}, and looks for the pattern in each of them, with {@link
+ * Matcher#find()}. A line which isn't terminated yet is looked at on {@link #flush()}. Memory is
+ * bounded by the max line length: longer lines are cut off, and only their start is looked at.
+ *
+ * <p>Lines are decoded into a reused buffer which one reused {@link Matcher} works on, so looking
+ * at a line which doesn't match allocates nothing.
+ *
+ * @author Nikan Radan
+ */
+public final class PatternConsoleOutputStream extends OutputStream {
+    /** The max line length used unless another one is given, in bytes. */
+    public static final int DEFAULT_MAX_LINE_LENGTH = 8192;
+
+    private final Matcher matcher;
+    private final Predicate<MatchResult> onMatch;
+    private final CharsetDecoder dec;
+    private final byte[] line;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+
+    private int length;
+    private boolean skipLF;
+    private boolean finished;
+
+    /**
+     * The public constructor.
+     *
+     * @param pattern the pattern that's searched for in each line.
+     * @param onMatch called with the match whenever a line matches. If it returns {@code false}, it stops searching,
+     *                if {@code true}, it continues to search in the following lines.
+     * @param maxLineLength the max number of bytes of a line that are looked at.
+     * @param charset the {@linkplain Charset} that's used.
+     *                If null it defaults to {@linkplain Charset#defaultCharset()}.
+     */
+    public PatternConsoleOutputStream(
+            Pattern pattern, Predicate<MatchResult> onMatch, int maxLineLength, @Nullable Charset charset) {
+        if (maxLineLength <= 0) {
+            throw new IllegalArgumentException("maxLineLength must be > 0");
+        }
+        this.matcher = pattern.matcher("");
+        this.onMatch = onMatch;
+        this.dec =
+                (charset == null ? Charset.defaultCharset() : charset)
+                        .newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.line = new byte[maxLineLength];
+        this.bytes = ByteBuffer.wrap(line);
+        this.chars = CharBuffer.allocate((int) Math.ceil(maxLineLength * (double) dec.maxCharsPerByte()));
+    }
+
+    /**
+     * Returns whether this output stream has finished searching.
+     *
+     * @return {@code true} if {@code onMatch} returned {@code false}, and this stream will ignore further input;
+     *         {@code false} otherwise.
+     */
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (finished) {
+            return;
+        }
+        if (b == '\n' || b == '\r') {
+            endLine(b == '\r');
+        } else {
+            skipLF = false;
+            if (length < line.length) {
+                line[length++] = (byte) b;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        int end = off + len;
+        while (off < end && !finished) {
+            byte c = b[off];
+            if (c == '\n' || c == '\r') {
+                endLine(c == '\r');
+                off++;
+                continue;
+            }
+            skipLF = false;
+            int eol = off + 1;
+            while (eol < end && b[eol] != '\n' && b[eol] != '\r') {
+                eol++;
+            }
+            int chunk = Math.min(eol - off, line.length - length);
+            System.arraycopy(b, off, line, length, chunk);
+            length += chunk;
+            off = eol;
+        }
+    }
+
+    private void endLine(boolean cr) {
+        if (skipLF && !cr) {
+            // The \n of a \r\n
+            skipLF = false;
+            return;
+        }
+        skipLF = cr;
+        processLine();
+    }
+
+    private void processLine() {
+        dec.reset();
+        chars.clear();
+        bytes.limit(length).position(0);
+        dec.decode(bytes, chars, true);
+        dec.flush(chars);
+        chars.flip();
+        length = 0;
+        if (matcher.reset(chars).find() && !onMatch.test(matcher.toMatchResult())) {
+            finished = true;
+        }
+    }
+
+    /** Looks at the line written so far, if it isn't terminated yet. */
+    @Override
+    public synchronized void flush() {
+        if (!finished && length > 0) {
+            processLine();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Samples the resource usage of processes from {@code /proc} on Linux, shared by the {@link
+ * ManagedProcess}es built by {@link ManagedProcessBuilder}s it was {@linkplain
+ * ManagedProcessBuilder#setProcessSampler(ProcessSampler) set} on.
+ *
+ * <p>At every interval, one thread reads {@code /proc/<pid>/stat}, {@code status} and {@code io}
+ * of each running process, and adds the CPU time, RSS, number of threads and bytes read and
+ * written to its {@link ResourceSamples}. The files are opened once per process and re-read with
+ * positional reads into a buffer of the sampler, and parsed in place, so sampling thousands of
+ * processes allocates nothing. Where {@code /proc} isn't available, or a file can't be read, the
+ * values concerned stay 0, or -1 for the bytes read and written.
+ *
+ * <p>The sampling thread is a daemon thread, created when the first process is registered. {@link
+ * #close()} stops it.
+ *
+ * @author Nikan Radan
+ */
+public class ProcessSampler implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessSampler.class);
+
+    // USER_HZ, which /proc reports CPU times in, is 100 on all architectures Linux supports
+    private static final long NANOS_PER_TICK = TimeUnit.SECONDS.toNanos(1) / 100;
+    private static final byte[] VM_RSS = "VmRSS:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] READ_BYTES = "read_bytes:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WRITE_BYTES = "write_bytes:".getBytes(StandardCharsets.US_ASCII);
+
+    private final long intervalNanos;
+    private final int capacity;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
+    private volatile Sampled[] sampled = new Sampled[0];
+    private @Nullable Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Creates a sampler.
+     *
+     * @param intervalMs how often to sample each process, in milliseconds, greater than 0
+     * @param capacity how many samples to keep per process, at least 1
+     */
+    public ProcessSampler(long intervalMs, int capacity) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("intervalMs must be greater than 0");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Starts sampling a process.
+     *
+     * @param pid the PID of the process
+     * @return the samples, which the sampler adds to until {@link #unregister(ResourceSamples)}
+     */
+    synchronized ResourceSamples register(long pid) {
+        ResourceSamples samples = new ResourceSamples(pid, capacity);
+        if (closed) {
+            return samples;
+        }
+        Path proc = Path.of("/proc", Long.toString(pid));
+        Sampled entry =
+                new Sampled(samples, open(proc.resolve("stat")), open(proc.resolve("status")), open(proc.resolve("io")));
+        Sampled[] current = sampled;
+        Sampled[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = entry;
+        sampled = updated;
+        if (thread == null) {
+            thread =
+                    ThreadFactories.newThread(
+                            Executors.defaultThreadFactory(), this::run, "ExecProcessSampler-", true);
+            thread.start();
+        }
+        return samples;
+    }
+
+    private static @Nullable FileChannel open(Path path) {
+        try {
+            return FileChannel.open(path);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.debug("Cannot sample {}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stops sampling a process, typically as it exited. The samples taken are kept.
+     *
+     * @param samples the samples returned by {@link #register(long)}
+     */
+    synchronized void unregister(ResourceSamples samples) {
+        Sampled[] current = sampled;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].samples == samples) {
+                current[i].close();
+                Sampled[] updated = new Sampled[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                sampled = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns how many processes are being sampled.
+     *
+     * @return the number of processes
+     */
+    public int getSampledCount() {
+        return sampled.length;
+    }
+
+    private void run() {
+        long next = System.nanoTime();
+        while (!closed) {
+            for (Sampled entry : sampled) {
+                // Unregistering closes the channels concurrently
+                synchronized (entry) {
+                    if (!entry.closed) {
+                        sample(entry);
+                    }
+                }
+            }
+            next += intervalNanos;
+            long now = System.nanoTime();
+            if (next - now > 0) {
+                LockSupport.parkNanos(next - now);
+            } else {
+                // Sampling took longer than the interval, don't try to catch up
+                next = now;
+            }
+        }
+    }
+
+    private void sample(Sampled entry) {
+        long timestamp = System.nanoTime();
+        long rss = 0;
+        long read = -1;
+        long written = -1;
+        if (!read(entry.stat)) {
+            // Reaped, keep the last real sample rather than adding empty ones until it's unregistered
+            entry.close();
+            return;
+        }
+        long cpu = (parseStatField(buffer, 11) + parseStatField(buffer, 12)) * NANOS_PER_TICK;
+        int threads = (int) parseStatField(buffer, 17);
+        if (read(entry.status)) {
+            rss = parseField(buffer, VM_RSS) * 1024;
+        }
+        if (read(entry.io)) {
+            read = parseField(buffer, READ_BYTES);
+            written = parseField(buffer, WRITE_BYTES);
+        }
+        entry.samples.add(timestamp, cpu, rss, threads, read, written);
+    }
+
+    // Reads the whole file into the buffer, from its start
+    private boolean read(@Nullable FileChannel channel) {
+        if (channel == null) {
+            return false;
+        }
+        buffer.clear();
+        try {
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+                // keep reading, the files are usually read in one go
+            }
+        } catch (IOException e) {
+            // The process exited
+            return false;
+        }
+        buffer.flip();
+        return buffer.hasRemaining();
+    }
+
+    /**
+     * Parses a numeric field of {@code /proc/<pid>/stat}.
+     *
+     * @param stat the contents of the file
+     * @param index the index of the field, counting from 0 for the state, which is the first one
+     *     after the command name, as that may contain spaces and parentheses
+     * @return the value, or 0 if the field isn't there
+     */
+    static long parseStatField(ByteBuffer stat, int index) {
+        int position = stat.limit() - 1;
+        while (position >= 0 && stat.get(position) != ')') {
+            position--;
+        }
+        // Skip ") "
+        position += 2;
+        for (int field = 0; field < index && position < stat.limit(); position++) {
+            if (stat.get(position) == ' ') {
+                field++;
+            }
+        }
+        return parseNumber(stat, position);
+    }
+
+    /**
+     * Parses the number after a key at the start of a line, like in {@code /proc/<pid>/status}.
+     *
+     * @param contents the contents of the file
+     * @param key the key, including the colon
+     * @return the value, or 0 if the key isn't there
+     */
+    static long parseField(ByteBuffer contents, byte[] key) {
+        int limit = contents.limit();
+        for (int line = 0; line < limit; ) {
+            if (startsWith(contents, line, key)) {
+                int position = line + key.length;
+                while (position < limit && (contents.get(position) == ' ' || contents.get(position) == '\t')) {
+                    position++;
+                }
+                return parseNumber(contents, position);
+            }
+            while (line < limit && contents.get(line) != '\n') {
+                line++;
+            }
+            line++;
+        }
+        return 0;
+    }
+
+    private static boolean startsWith(ByteBuffer contents, int offset, byte[] prefix) {
+        if (offset + prefix.length > contents.limit()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (contents.get(offset + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseNumber(ByteBuffer contents, int position) {
+        long value = 0;
+        for (; position < contents.limit(); position++) {
+            byte b = contents.get(position);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    /** Stops sampling, and closes the files of all processes still registered. */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Sampled entry : sampled) {
+            entry.close();
+        }
+        sampled = new Sampled[0];
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessSampler[interval=" + TimeUnit.NANOSECONDS.toMillis(intervalNanos) + "ms, processes="
+                + sampled.length + "]";
+    }
+
+    private static final class Sampled {
+        private final ResourceSamples samples;
+        private final @Nullable FileChannel stat;
+        private final @Nullable FileChannel status;
+        private final @Nullable FileChannel io;
+        private boolean closed;
+
+        private Sampled(
+                ResourceSamples samples,
+                @Nullable FileChannel stat,
+                @Nullable FileChannel status,
+                @Nullable FileChannel io) {
+            this.samples = samples;
+            this.stat = stat;
+            this.status = status;
+            this.io = io;
+        }
+
+        synchronized void close() {
+            closed = true;
+            for (FileChannel channel : new FileChannel[] {stat, status, io}) {
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        logger.debug("Cannot close {}", channel, e);
+                    }
+                }
+            }
+        }
+    }
+}
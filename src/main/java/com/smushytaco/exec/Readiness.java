@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * How waiting for a process to become ready ended, see {@link
+ * ManagedProcess#startAndWaitForConsoleMessageAsync(String, long)}.
+ *
+ * @author Nikan Radan
+ */
+public class Readiness {
+
+    private final @Nullable String matchedText;
+    private final long elapsedMs;
+
+    /**
+     * Creates a {@code Readiness}.
+     *
+     * @param matchedText what showed that the process is ready, or {@code null} if it didn't get
+     *     ready in time
+     * @param elapsedMs the time it took from the start of the process until it was ready, or until
+     *     giving up, in milliseconds
+     */
+    Readiness(@Nullable String matchedText, long elapsedMs) {
+        this.matchedText = matchedText;
+        this.elapsedMs = elapsedMs;
+    }
+
+    /**
+     * Returns whether the process got ready in time.
+     *
+     * @return {@code true} if it got ready, {@code false} if waiting timed out
+     */
+    public boolean isReady() {
+        return matchedText != null;
+    }
+
+    /**
+     * Returns what showed that the process is ready, e.g. the console message seen.
+     *
+     * @return the matched text, or {@code null} if the process didn't get ready in time
+     */
+    public @Nullable String getMatchedText() {
+        return matchedText;
+    }
+
+    /**
+     * Returns the time it took from the start of the process until it was ready, or until giving
+     * up on it.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return isReady()
+                ? "ready after " + elapsedMs + "ms (\"" + matchedText + "\")"
+                : "not ready after " + elapsedMs + "ms";
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Check whether a process is ready, e.g. whether a server accepts connections, see {@link
+ * ManagedProcessBuilder#addReadinessProbe(ReadinessProbe)}.
+ *
+ * <p>Probes are polled with an exponential back-off from {@value #MIN_INTERVAL_MS}ms up to {@value
+ * #MAX_INTERVAL_MS}ms between checks, so a process is seen ready a few milliseconds after e.g.
+ * binding its port, instead of when it gets to print a log line about it. The checks are only
+ * scheduled on the timer shared by all processes, which also arms their timeouts; they run on a
+ * small pool of up to {@value #CHECK_THREADS} daemon threads, created on demand, so a check which
+ * blocks for a while can only delay other checks, never the timeout of any process.
+ *
+ * @author Nikan Radan
+ */
+public final class ReadinessProbe {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadinessProbe.class);
+
+    static final long MIN_INTERVAL_MS = 1;
+    static final long MAX_INTERVAL_MS = 200;
+    static final int CHECK_THREADS = 4;
+    private static final int CONNECT_TIMEOUT_MS = 100;
+    private static final ThreadPoolExecutor CHECKS = createChecks();
+
+    private final String description;
+    private final BooleanSupplier check;
+
+    private ReadinessProbe(String description, BooleanSupplier check) {
+        this.description = description;
+        this.check = check;
+    }
+
+    private static ThreadPoolExecutor createChecks() {
+        ThreadPoolExecutor checks =
+                new ThreadPoolExecutor(
+                        CHECK_THREADS,
+                        CHECK_THREADS,
+                        30,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        r -> ThreadFactories.newThread(
+                                Executors.defaultThreadFactory(), r, "ExecReadinessProbe-", true));
+        checks.allowCoreThreadTimeOut(true);
+        return checks;
+    }
+
+    /**
+     * Creates a probe which is ready once a TCP port on the loopback address accepts connections.
+     *
+     * @param port the port
+     * @return the probe
+     */
+    public static ReadinessProbe tcpPort(int port) {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        return new ReadinessProbe(
+                "TCP port " + port,
+                () -> {
+                    try (Socket socket = new Socket()) {
+                        socket.connect(address, CONNECT_TIMEOUT_MS);
+                        return true;
+                    } catch (IOException e) {
+                        return false;
+                    }
+                });
+    }
+
+    /**
+     * Creates a probe which is ready once a file exists, e.g. a PID file written at the end of the
+     * startup.
+     *
+     * @param file the file
+     * @return the probe
+     */
+    public static ReadinessProbe file(Path file) {
+        return new ReadinessProbe("file " + file, () -> Files.exists(file));
+    }
+
+    /**
+     * Creates a probe which is ready once a Unix domain socket accepts connections.
+     *
+     * @param socket the path of the socket
+     * @return the probe
+     */
+    public static ReadinessProbe unixSocket(Path socket) {
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socket);
+        return new ReadinessProbe(
+                "Unix domain socket " + socket,
+                () -> {
+                    if (!Files.exists(socket)) {
+                        return false;
+                    }
+                    try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+                        return channel.connect(address);
+                    } catch (IOException e) {
+                        return false;
+                    }
+                });
+    }
+
+    /**
+     * Creates a probe which is ready once a custom check returns {@code true}.
+     *
+     * @param description what is checked, for logging
+     * @param check the check, which must be thread-safe, and should be quick as the threads
+     *     running the checks are shared by all processes
+     * @return the probe
+     */
+    public static ReadinessProbe of(String description, BooleanSupplier check) {
+        return new ReadinessProbe(description, check);
+    }
+
+    /**
+     * Checks whether this probe is ready now.
+     *
+     * @return {@code true} if ready
+     */
+    public boolean isReady() {
+        return check.getAsBoolean();
+    }
+
+    /**
+     * Polls this probe, with back-off, until it's ready or {@code until} is done.
+     *
+     * @param until completed once polling should stop
+     * @param onReady called once this probe is ready
+     */
+    void poll(CompletableFuture<?> until, Runnable onReady) {
+        schedule(until, onReady, MIN_INTERVAL_MS);
+    }
+
+    private void schedule(CompletableFuture<?> until, Runnable onReady, long intervalMs) {
+        // Only hand the check over here; it mustn't block the shared timer, which arms timeouts
+        SharedScheduler.schedule(
+                () -> CHECKS.execute(() -> poll(until, onReady, Math.min(intervalMs * 2, MAX_INTERVAL_MS))),
+                intervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(CompletableFuture<?> until, Runnable onReady, long intervalMs) {
+        if (until.isDone()) {
+            return;
+        }
+        boolean ready;
+        try {
+            ready = isReady();
+        } catch (RuntimeException e) {
+            // Must not kill the check thread, which is shared with other processes
+            logger.debug("Readiness probe {} failed", description, e);
+            ready = false;
+        }
+        if (ready) {
+            onReady.run();
+        } else {
+            schedule(until, onReady, intervalMs);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+/**
+ * Time series of the resource usage of one process, sampled by a {@link ProcessSampler}, see
+ * {@link ManagedProcess#getResourceSamples()}.
+ *
+ * <p>Samples are kept in a ring of fixed capacity; once it's full, each new sample replaces the
+ * oldest one. Samples are addressed by index, from {@code 0} for the oldest one kept to {@code
+ * size() - 1} for the latest one. As the sampler keeps adding samples while the process runs, read
+ * the fields of one sample within a block synchronized on this instance if they must be
+ * consistent.
+ *
+ * @author Nikan Radan
+ */
+public final class ResourceSamples {
+
+    private final long pid;
+    private final long[] timestampNanos;
+    private final long[] cpuNanos;
+    private final long[] rssBytes;
+    private final int[] threads;
+    private final long[] readBytes;
+    private final long[] writeBytes;
+    private int head;
+    private int size;
+
+    ResourceSamples(long pid, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.pid = pid;
+        timestampNanos = new long[capacity];
+        cpuNanos = new long[capacity];
+        rssBytes = new long[capacity];
+        threads = new int[capacity];
+        readBytes = new long[capacity];
+        writeBytes = new long[capacity];
+    }
+
+    synchronized void add(long timestamp, long cpu, long rss, int threadCount, long read, long written) {
+        int slot = (head + size) % timestampNanos.length;
+        if (size == timestampNanos.length) {
+            head = (head + 1) % timestampNanos.length;
+        } else {
+            size++;
+        }
+        timestampNanos[slot] = timestamp;
+        cpuNanos[slot] = cpu;
+        rssBytes[slot] = rss;
+        threads[slot] = threadCount;
+        readBytes[slot] = read;
+        writeBytes[slot] = written;
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Sample " + index + " of " + size);
+        }
+        return (head + index) % timestampNanos.length;
+    }
+
+    /**
+     * Returns the PID of the sampled process.
+     *
+     * @return the PID
+     */
+    public long getPid() {
+        return pid;
+    }
+
+    /**
+     * Returns how many samples the ring holds at most.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return timestampNanos.length;
+    }
+
+    /**
+     * Returns how many samples are kept.
+     *
+     * @return the number of samples, at most {@link #capacity()}
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns when a sample was taken.
+     *
+     * @param index the index of the sample, {@code size() - 1} for the latest one
+     * @return the time in {@link System#nanoTime()} nanoseconds
+     */
+    public synchronized long getTimestampNanos(int index) {
+        return timestampNanos[slot(index)];
+    }
+
+    /**
+     * Returns the CPU time, user and system, the process used until a sample was taken.
+     *
+     * @param index the index of the sample, {@code size() - 1} for the latest one
+     * @return the CPU time in nanoseconds, in steps of the kernel's clock tick
+     */
+    public synchronized long getCpuNanos(int index) {
+        return cpuNanos[slot(index)];
+    }
+
+    /**
+     * Returns the resident set size of the process when a sample was taken.
+     *
+     * @param index the index of the sample, {@code size() - 1} for the latest one
+     * @return the RSS in bytes
+     */
+    public synchronized long getRssBytes(int index) {
+        return rssBytes[slot(index)];
+    }
+
+    /**
+     * Returns the number of threads of the process when a sample was taken.
+     *
+     * @param index the index of the sample, {@code size() - 1} for the latest one
+     * @return the number of threads
+     */
+    public synchronized int getThreads(int index) {
+        return threads[slot(index)];
+    }
+
+    /**
+     * Returns how many bytes the process caused to be read from storage until a sample was taken.
+     *
+     * @param index the index of the sample, {@code size() - 1} for the latest one
+     * @return the bytes read, or -1 if not available
+     */
+    public synchronized long getReadBytes(int index) {
+        return readBytes[slot(index)];
+    }
+
+    /**
+     * Returns how many bytes the process caused to be written to storage until a sample was taken.
+     *
+     * @param index the index of the sample, {@code size() - 1} for the latest one
+     * @return the bytes written, or -1 if not available
+     */
+    public synchronized long getWriteBytes(int index) {
+        return writeBytes[slot(index)];
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (size == 0) {
+            return "ResourceSamples[pid=" + pid + ", none]";
+        }
+        int latest = slot(size - 1);
+        return "ResourceSamples[pid=" + pid + ", samples=" + size + ", cpu="
+                + cpuNanos[latest] / 1_000_000 + "ms, rss=" + rssBytes[latest] / 1024 + "kB, threads="
+                + threads[latest] + ", read=" + readBytes[latest] + "B, written=" + writeBytes[latest] + "B]";
+    }
+}
@@ -16,42 +16,192 @@
 
 package com.smushytaco.exec;
 
-import org.apache.commons.exec.LogOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 
 /**
  * Rolling Process Output Buffer.
  *
+ * <p>Splits lines like Apache Commons Exec's {@code LogOutputStream} (at CR, LF or CRLF, and at
+ * {@link #flush()}), but keeps the raw bytes of the recent lines in a ring, plus a ring of where
+ * each line starts and how long it is. Appending therefore allocates nothing; lines are only decoded
+ * (with the default charset) by {@link #getRecentLines()}.
+ *
+ * <p>The byte ring starts at {@value #BYTES_PER_LINE} bytes per line and grows up to {@value
+ * #MAX_CAPACITY} bytes for long lines. Beyond that, the oldest lines are dropped early, and a single
+ * line which doesn't fit at all is cut off.
+ *
  * @author Michael Vorburger
  */
-class RollingLogOutputStream extends LogOutputStream {
+class RollingLogOutputStream extends OutputStream {
+
+    static final int BYTES_PER_LINE = 128;
+    static final int MAX_CAPACITY = 1024 * 1024;
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final Charset charset = Charset.defaultCharset();
+    private final byte[] single = new byte[1];
+    private final long[] lineStarts;
+    private final int[] lineLengths;
+    private int firstLine;
+    private int lineCount;
 
-    private final CircularFifoQueue<String> ringBuffer;
+    private byte[] bytes;
+    // Offsets count all bytes ever kept, the index into bytes is the offset modulo its length
+    private long end;
+    private long currentStart;
+    private boolean skip;
 
     RollingLogOutputStream(int maxLines) {
-        ringBuffer = new CircularFifoQueue<>(maxLines);
+        if (maxLines <= 0) {
+            throw new IllegalArgumentException("maxLines must be > 0");
+        }
+        lineStarts = new long[maxLines];
+        lineLengths = new int[maxLines];
+        bytes = new byte[(int) Math.min(Math.max(4096L, (long) maxLines * BYTES_PER_LINE), MAX_CAPACITY)];
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        byte c = (byte) b;
+        if (c == LF || c == CR) {
+            if (!skip) {
+                endLine();
+            }
+        } else {
+            single[0] = c;
+            append(single, 0, 1);
+        }
+        skip = c == CR;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        int end = off + len;
+        int blockStart = off;
+        for (int i = off; i < end; i++) {
+            byte c = b[i];
+            if (c == LF || c == CR) {
+                if (i > blockStart) {
+                    append(b, blockStart, i - blockStart);
+                    skip = false;
+                }
+                if (!skip) {
+                    endLine();
+                }
+                skip = c == CR;
+                blockStart = i + 1;
+            }
+        }
+        if (end > blockStart) {
+            append(b, blockStart, end - blockStart);
+            skip = false;
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (end > currentStart) {
+            endLine();
+        }
     }
 
     @Override
-    protected synchronized void processLine(String line, @SuppressWarnings("unused") int level) {
-        ringBuffer.add(line);
+    public void close() {
+        flush();
+    }
+
+    private void endLine() {
+        if (lineCount == lineStarts.length) {
+            dropOldestLine();
+        }
+        int index = (firstLine + lineCount) % lineStarts.length;
+        lineStarts[index] = currentStart;
+        lineLengths[index] = (int) (end - currentStart);
+        lineCount++;
+        currentStart = end;
+    }
+
+    private void dropOldestLine() {
+        firstLine = (firstLine + 1) % lineStarts.length;
+        lineCount--;
+    }
+
+    private void append(byte[] b, int off, int len) {
+        long needed = end + len - (lineCount > 0 ? lineStarts[firstLine] : currentStart);
+        while (needed > bytes.length && lineCount > 0 && bytes.length == MAX_CAPACITY) {
+            dropOldestLine();
+            needed = end + len - (lineCount > 0 ? lineStarts[firstLine] : currentStart);
+        }
+        if (needed > bytes.length && bytes.length < MAX_CAPACITY) {
+            grow(needed);
+            append(b, off, len);
+            return;
+        }
+        if (needed > bytes.length) {
+            // Only the current line is left, and it doesn't fit: cut it off
+            len -= (int) (needed - bytes.length);
+            if (len <= 0) {
+                return;
+            }
+        }
+        int index = (int) (end % bytes.length);
+        int first = Math.min(len, bytes.length - index);
+        System.arraycopy(b, off, bytes, index, first);
+        System.arraycopy(b, off + first, bytes, 0, len - first);
+        end += len;
+    }
+
+    private void grow(long needed) {
+        long capacity = bytes.length;
+        while (capacity < needed && capacity < MAX_CAPACITY) {
+            capacity *= 2;
+        }
+        byte[] grown = new byte[(int) Math.min(capacity, MAX_CAPACITY)];
+        long start = lineCount > 0 ? lineStarts[firstLine] : currentStart;
+        for (long offset = start; offset < end; ) {
+            int from = (int) (offset % bytes.length);
+            int to = (int) (offset % grown.length);
+            int length = (int) Math.min(end - offset, Math.min(bytes.length - from, grown.length - to));
+            System.arraycopy(bytes, from, grown, to, length);
+            offset += length;
+        }
+        bytes = grown;
     }
 
     /**
      * Returns recent lines (up to maxLines from constructor).
      *
-     * <p>The implementation is relatively expensive here; the design is intended for many
-     * processLine() calls and few getRecentLines().
+     * <p>This is where lines are decoded; the design is intended for many writes and few
+     * getRecentLines().
      *
      * @return recent Console output
      */
     public synchronized String getRecentLines() {
-        StringBuilder sb = new StringBuilder();
-        for (String line : ringBuffer) {
-            if (!sb.isEmpty()) {
-                sb.append('\n');
+        if (lineCount == 0) {
+            return "";
+        }
+        // Joined with LF while still bytes, so it's decoded in one go
+        int total = lineCount - 1;
+        for (int i = 0; i < lineCount; i++) {
+            total += lineLengths[(firstLine + i) % lineStarts.length];
+        }
+        byte[] joined = new byte[total];
+        int position = 0;
+        for (int i = 0; i < lineCount; i++) {
+            int line = (firstLine + i) % lineStarts.length;
+            int index = (int) (lineStarts[line] % bytes.length);
+            int length = lineLengths[line];
+            if (i > 0) {
+                joined[position++] = LF;
             }
-            sb.append(line);
+            int first = Math.min(length, bytes.length - index);
+            System.arraycopy(bytes, index, joined, position, first);
+            System.arraycopy(bytes, 0, joined, position + first, length - first);
+            position += length;
         }
-        return sb.toString();
+        return new String(joined, charset);
     }
 }
@@ -17,12 +17,18 @@
 package com.smushytaco.exec;
 
 import org.apache.commons.exec.LogOutputStream;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.event.Level;
 
 /**
  * OutputStream which logs to SLF4j.
  *
+ * <p>Lines are logged right away on the thread writing them, or, if asynchronous, queued to be
+ * logged by the {@link AsyncLogDrainer}. The {@link OutputStreamLogDispatcher} is then called either
+ * on the writing thread, so suppressed lines aren't even queued, or on the logging thread, to keep
+ * an expensive one off the stream pump threads.
+ *
  * <p>With many thanks to <a
  * href="https://stackoverflow.com/questions/5499042/writing-output-error-to-log-files-using">PumpStreamHandler</a>
  *
@@ -34,24 +40,78 @@ class SLF4jLogOutputStream extends LogOutputStream {
     private final Logger logger;
     private final OutputStreamType type;
     private final String pid;
+    private final @Nullable OverflowPolicy asyncOverflowPolicy;
+    private final boolean dispatchOnLoggingThread;
+    private final AsyncLogDrainer.@Nullable Backlog backlog;
 
     protected SLF4jLogOutputStream(
             Logger logger,
             String pid,
             OutputStreamType type,
             OutputStreamLogDispatcher dispatcher) {
+        this(logger, pid, type, dispatcher, null, false, null);
+    }
+
+    /**
+     * Creates an {@code SLF4jLogOutputStream}.
+     *
+     * @param logger the logger to log to
+     * @param pid the name of the process, prefixed to every line
+     * @param type whether this is the STDOUT or STDERR of the process
+     * @param dispatcher decides the level of each line
+     * @param asyncOverflowPolicy what to do when the queue of the {@link AsyncLogDrainer} is full,
+     *     or {@code null} to log right away
+     * @param dispatchOnLoggingThread whether the dispatcher is called on the logging thread instead
+     *     of on the thread writing, if asynchronous
+     * @param backlog tracks the queued lines of the process and counts those discarded, if
+     *     asynchronous
+     */
+    SLF4jLogOutputStream(
+            Logger logger,
+            String pid,
+            OutputStreamType type,
+            OutputStreamLogDispatcher dispatcher,
+            @Nullable OverflowPolicy asyncOverflowPolicy,
+            boolean dispatchOnLoggingThread,
+            AsyncLogDrainer.@Nullable Backlog backlog) {
         this.dispatcher = dispatcher;
         this.logger = logger;
         this.type = type;
         this.pid = pid;
+        this.asyncOverflowPolicy = asyncOverflowPolicy;
+        this.dispatchOnLoggingThread = dispatchOnLoggingThread;
+        this.backlog = backlog;
     }
 
     @Override
     protected void processLine(String line, @SuppressWarnings("unused") int level) {
-        Level logLevel = dispatcher.dispatch(type, line);
-        if (logLevel == null) {
+        if (asyncOverflowPolicy == null || backlog == null) {
+            log(line, null);
             return;
         }
+        Level logLevel = null;
+        if (!dispatchOnLoggingThread) {
+            logLevel = dispatcher.dispatch(type, line);
+            if (logLevel == null) {
+                return;
+            }
+        }
+        AsyncLogDrainer.enqueue(this, backlog, line, logLevel, asyncOverflowPolicy);
+    }
+
+    /**
+     * Logs a line.
+     *
+     * @param line the line
+     * @param logLevel the level to log it at, or {@code null} to ask the dispatcher
+     */
+    void log(String line, @Nullable Level logLevel) {
+        if (logLevel == null) {
+            logLevel = dispatcher.dispatch(type, line);
+            if (logLevel == null) {
+                return;
+            }
+        }
         switch (logLevel) {
             case TRACE -> logger.trace("{}: {}", pid, line);
             case DEBUG -> logger.debug("{}: {}", pid, line);
@@ -60,4 +120,9 @@ class SLF4jLogOutputStream extends LogOutputStream {
             case ERROR -> logger.error("{}: {}", pid, line);
         }
     }
+
+    @Override
+    public String toString() {
+        return pid + " " + type;
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide timer shared by all {@link ManagedProcess} instances.
+ *
+ * <p>Owns a single daemon thread, created lazily on first use, no matter how many processes arm
+ * deadlines on it. Cancelled tasks are removed from the queue right away, so processes which exit
+ * long before their deadline do not pile up.
+ *
+ * <p>Scheduled tasks run on that one thread and must therefore be short and must not block.
+ *
+ * @author Nikan Radan
+ */
+final class SharedScheduler {
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = create();
+
+    private SharedScheduler() {}
+
+    private static ScheduledThreadPoolExecutor create() {
+        ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        r -> ThreadFactories.newThread(
+                                Executors.defaultThreadFactory(), r, "ExecSharedScheduler-", true));
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return scheduler;
+    }
+
+    /**
+     * Runs a task once after the given delay.
+     *
+     * @param task the task, which must not block
+     * @param delay the delay
+     * @param unit the unit of {@code delay}
+     * @return a future which can be used to cancel the task
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return SCHEDULER.schedule(task, delay, unit);
+    }
+
+    /**
+     * Returns the number of tasks currently waiting to run.
+     *
+     * @return the number of pending tasks
+     */
+    static int pendingTasks() {
+        return SCHEDULER.getQueue().size();
+    }
+}
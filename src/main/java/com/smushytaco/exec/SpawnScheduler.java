@@ -0,0 +1,382 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for launching processes, shared by the {@link ManagedProcess}es built by
+ * {@link ManagedProcessBuilder}s it was {@linkplain ManagedProcessBuilder#setSpawnScheduler(SpawnScheduler)
+ * set} on.
+ *
+ * <p>Launching thousands of processes at once makes every launch slower, up to the point where
+ * the host starts swapping. This limits how many processes may be launching at the same time; a
+ * process counts as launching from its fork until its streams are pumped. Launches beyond the
+ * limit wait in a bounded queue, highest {@linkplain ManagedProcessBuilder#setSpawnPriority(int)
+ * priority} first, and in order of arrival for equal priorities. A launch which would overflow the
+ * queue fails with a {@link ManagedProcessException} right away.
+ *
+ * <p>The limit adapts, AIMD style: it grows by one per round of launches which each took no
+ * longer than the {@linkplain #setTargetSpawnLatencyMs(long) target latency}, and is halved when
+ * a launch took longer, or the system load average per CPU exceeds {@link
+ * #setMaxLoadPerCpu(double)}, at most once per target latency. It never drops below one, nor
+ * exceeds the maximum it was created with.
+ *
+ * <p>Waiting to be admitted doesn't block any thread with {@link ManagedProcess#startAsync()}: a
+ * queued launch is a future, and the process is launched on a thread of its own once admitted.
+ * {@link ManagedProcess#start()} still blocks until then, as it always waits for the launch.
+ *
+ * @author Nikan Radan
+ */
+public class SpawnScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpawnScheduler.class);
+
+    private static final double BACKOFF = 0.5;
+    private static final long LOAD_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final OperatingSystemMXBean OS = ManagementFactory.getOperatingSystemMXBean();
+
+    private final int maxConcurrency;
+    private final int maxQueued;
+    private volatile long targetSpawnLatencyNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private volatile double maxLoadPerCpu = 2.0;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiting =
+            new PriorityQueue<>(
+                    Comparator.comparingInt((Waiter w) -> -w.priority).thenComparingLong(w -> w.arrival));
+    private long arrivals;
+    private double limit;
+    private int inFlight;
+    private long admitted;
+    private long rejected;
+    private long lastDecreaseNanos = System.nanoTime();
+    private long loadCheckedNanos = System.nanoTime() - LOAD_REFRESH_NANOS;
+    private boolean overloaded;
+    private long rateWindowStartNanos = System.nanoTime();
+    private long rateWindowAdmitted;
+    private double admittedPerSecond;
+
+    /**
+     * Creates a scheduler, which initially lets as many processes launch at the same time as
+     * there are CPUs, but not more than {@code maxConcurrency}.
+     *
+     * @param maxConcurrency the maximum the limit of launching processes may grow to, at least 1
+     * @param maxQueued how many launches may wait to be admitted, at least 0
+     */
+    public SpawnScheduler(int maxConcurrency, int maxQueued) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued must not be negative");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueued = maxQueued;
+        limit = Math.min(maxConcurrency, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Sets how long launching a process, from its fork until its streams are pumped, may take
+     * before the limit is decreased. Defaults to 100ms.
+     *
+     * @param targetSpawnLatencyMs the target latency in milliseconds, greater than 0
+     * @return this scheduler instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public SpawnScheduler setTargetSpawnLatencyMs(long targetSpawnLatencyMs) {
+        if (targetSpawnLatencyMs <= 0) {
+            throw new IllegalArgumentException("targetSpawnLatencyMs must be greater than 0");
+        }
+        this.targetSpawnLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetSpawnLatencyMs);
+        return this;
+    }
+
+    /**
+     * Sets the system load average per CPU above which the limit is decreased. Defaults to 2.
+     * Ignored where the load average isn't available, such as on Windows.
+     *
+     * @param maxLoadPerCpu the maximum load per CPU
+     * @return this scheduler instance for chaining
+     */
+    @SuppressWarnings("unused")
+    public SpawnScheduler setMaxLoadPerCpu(double maxLoadPerCpu) {
+        this.maxLoadPerCpu = maxLoadPerCpu;
+        return this;
+    }
+
+    /**
+     * Admits a launch with the given priority, right away if the limit allows it, or else queues
+     * it until it does, without blocking the calling thread.
+     *
+     * @param priority launches with a higher priority are admitted first
+     * @return a future which completes with the permit, to be {@linkplain Permit#release()
+     *     released} once the launched process' streams are pumped, or it failed to launch; or
+     *     exceptionally with a {@link ManagedProcessException} right away if the queue is full.
+     *     Cancelling it gives up waiting to be admitted.
+     */
+    CompletableFuture<Permit> acquire(int priority) {
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (waiting.isEmpty() && inFlight < (int) limit) {
+                return CompletableFuture.completedFuture(admit());
+            }
+            if (waiting.size() >= maxQueued) {
+                rejected++;
+                return CompletableFuture.failedFuture(
+                        new ManagedProcessException(
+                                "Spawn queue is full, " + waiting.size() + " launches are waiting already: " + this));
+            }
+            waiter = new Waiter(priority, arrivals++);
+            waiting.add(waiter);
+        } finally {
+            lock.unlock();
+        }
+        waiter.admission.whenComplete(
+                (permit, e) -> {
+                    if (e != null) {
+                        abandoned(waiter);
+                    }
+                });
+        return waiter.admission;
+    }
+
+    private void abandoned(Waiter waiter) {
+        lock.lock();
+        try {
+            waiting.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+        admitWaiting();
+    }
+
+    // Callers hold the lock
+    private Permit admit() {
+        inFlight++;
+        admitted++;
+        long now = System.nanoTime();
+        if (now - rateWindowStartNanos >= RATE_WINDOW_NANOS) {
+            admittedPerSecond = rateWindowAdmitted * 1e9 / (now - rateWindowStartNanos);
+            rateWindowStartNanos = now;
+            rateWindowAdmitted = 0;
+        }
+        rateWindowAdmitted++;
+        return new Permit(now);
+    }
+
+    /**
+     * Admits waiting launches as long as the limit allows it. Their futures are completed without
+     * holding the lock, as that launches their processes.
+     */
+    private void admitWaiting() {
+        while (true) {
+            Waiter next;
+            Permit permit;
+            lock.lock();
+            try {
+                next = waiting.peek();
+                if (next == null || inFlight >= (int) limit) {
+                    return;
+                }
+                waiting.poll();
+                if (next.admission.isDone()) {
+                    // Given up on
+                    continue;
+                }
+                permit = admit();
+            } finally {
+                lock.unlock();
+            }
+            if (!next.admission.complete(permit)) {
+                // Given up on meanwhile
+                permit.release();
+            }
+        }
+    }
+
+    private void released(long spawnLatencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            long now = System.nanoTime();
+            if (spawnLatencyNanos > targetSpawnLatencyNanos || overloaded(now)) {
+                if (now - lastDecreaseNanos >= targetSpawnLatencyNanos) {
+                    lastDecreaseNanos = now;
+                    limit = Math.max(1, limit * BACKOFF);
+                    logger.debug(
+                            "Launch took {}ms, decreased the limit of {}",
+                            TimeUnit.NANOSECONDS.toMillis(spawnLatencyNanos),
+                            this);
+                }
+            } else {
+                limit = Math.min(maxConcurrency, limit + 1 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+        admitWaiting();
+    }
+
+    // Callers hold the lock
+    private boolean overloaded(long now) {
+        if (now - loadCheckedNanos >= LOAD_REFRESH_NANOS) {
+            loadCheckedNanos = now;
+            // Read from /proc/loadavg on Linux; negative where it isn't available
+            double load = OS.getSystemLoadAverage();
+            overloaded = load >= 0 && load / OS.getAvailableProcessors() > maxLoadPerCpu;
+        }
+        return overloaded;
+    }
+
+    /**
+     * Returns how many launches are waiting to be admitted.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many processes are launching, i.e. were admitted, but their streams aren't
+     * pumped yet.
+     *
+     * @return the number of launches in flight
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit of processes launching at the same time.
+     *
+     * @return the limit, between 1 and the maximum the scheduler was created with
+     */
+    public int getConcurrencyLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many launches were admitted so far.
+     *
+     * @return the number of admitted launches
+     */
+    public long getAdmitted() {
+        lock.lock();
+        try {
+            return admitted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many launches failed, as the queue was full.
+     *
+     * @return the number of rejected launches
+     */
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the rate launches were admitted at, over the last second.
+     *
+     * @return the admitted launches per second
+     */
+    public double getAdmittedPerSecond() {
+        lock.lock();
+        try {
+            long elapsed = System.nanoTime() - rateWindowStartNanos;
+            return elapsed >= RATE_WINDOW_NANOS ? rateWindowAdmitted * 1e9 / elapsed : admittedPerSecond;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return "SpawnScheduler[limit=" + (int) limit + "/" + maxConcurrency + ", inFlight=" + inFlight
+                    + ", queued=" + waiting.size() + "/" + maxQueued + "]";
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Waiter {
+        private final int priority;
+        private final long arrival;
+        private final CompletableFuture<Permit> admission = new CompletableFuture<>();
+
+        private Waiter(int priority, long arrival) {
+            this.priority = priority;
+            this.arrival = arrival;
+        }
+    }
+
+    /** An admitted launch. */
+    final class Permit {
+        private final long admittedNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long admittedNanos) {
+            this.admittedNanos = admittedNanos;
+        }
+
+        /** Ends the launch, which adapts the limit to how long it took. Only the first call counts. */
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                released(System.nanoTime() - admittedNanos);
+            }
+        }
+    }
+}
@@ -17,27 +17,38 @@
 package com.smushytaco.exec;
 
 import org.apache.commons.exec.PumpStreamHandler;
+import org.apache.commons.exec.StreamPumper;
 import org.jspecify.annotations.Nullable;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
 
 class StartSignalingPumpStreamHandler extends PumpStreamHandler {
-    private final CountDownLatch started;
+    private final CompletableFuture<@Nullable Void> started;
+    private final ThreadFactory threadFactory;
 
     StartSignalingPumpStreamHandler(
             OutputStream outputStream,
             OutputStream errorOutputStream,
             @Nullable InputStream inputStream,
-            CountDownLatch started) {
+            CompletableFuture<@Nullable Void> started,
+            ThreadFactory threadFactory) {
         super(outputStream, errorOutputStream, inputStream);
         this.started = started;
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    protected Thread createPump(InputStream is, OutputStream os, boolean closeWhenExhausted) {
+        return ThreadFactories.newThread(
+                threadFactory, new StreamPumper(is, os, closeWhenExhausted), "CommonsExecStreamPumper-", true);
     }
 
     @Override
     public void start() {
         super.start();
-        started.countDown();
+        started.complete(null);
     }
 }
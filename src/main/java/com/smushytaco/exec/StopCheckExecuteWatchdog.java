@@ -17,9 +17,14 @@
 package com.smushytaco.exec;
 
 import org.apache.commons.exec.ExecuteWatchdog;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An extension of {@link ExecuteWatchdog} that tracks
@@ -28,13 +33,28 @@ import java.util.concurrent.Executors;
  * <p>This class adds the ability to query the stopped state via {@link #isStopped()},
  * since the standard {@code ExecuteWatchdog} does not expose this information.
  *
+ * <p>Unlike the standard {@code ExecuteWatchdog}, which starts a thread per monitored process, the
+ * timeout is armed on a single timer shared by all processes, so a watchdog never adds a thread.
+ *
+ * <p>Besides the wall-clock timeout, it optionally destroys the process once it went quiet for an
+ * idle timeout; see {@link #outputSeen()}. When either timeout fires, the descendants of the process
+ * are destroyed as well.
+ *
  * <p>Used internally by {@link ManagedProcess} to determine whether a process
  * has been externally terminated or has naturally completed.
  *
  * @author Michael Vorburger
  */
 public class StopCheckExecuteWatchdog extends ExecuteWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(StopCheckExecuteWatchdog.class);
+
+    private final long timeoutMillis;
+    private final long idleTimeoutMillis;
     private volatile boolean stopped = false;
+    private volatile long lastOutputNanos;
+    private @Nullable ScheduledFuture<?> deadline;
+    private @Nullable ScheduledFuture<?> idleDeadline;
+    private @Nullable Process process;
 
     /**
      * Creates a new watchdog with a given timeout.
@@ -43,15 +63,115 @@ public class StopCheckExecuteWatchdog extends ExecuteWatchdog {
      *     or 'INFINITE_TIMEOUT'
      */
     public StopCheckExecuteWatchdog(long timeoutMillis) {
-        super(Duration.ofMillis(timeoutMillis), Executors.defaultThreadFactory());
+        this(timeoutMillis, INFINITE_TIMEOUT);
+    }
+
+    /**
+     * Creates a new watchdog with a given wall-clock timeout and idle timeout.
+     *
+     * @param timeoutMillis the timeout for the process in milliseconds. It must be greater than 0
+     *     or 'INFINITE_TIMEOUT'
+     * @param idleTimeoutMillis the time in milliseconds the process may go without {@link
+     *     #outputSeen() output} before it is destroyed. It must be greater than 0 or
+     *     'INFINITE_TIMEOUT'
+     */
+    public StopCheckExecuteWatchdog(long timeoutMillis, long idleTimeoutMillis) {
+        super(INFINITE_TIMEOUT_DURATION, Executors.defaultThreadFactory());
+        if (timeoutMillis <= 0 && timeoutMillis != INFINITE_TIMEOUT) {
+            throw new IllegalArgumentException("timeoutMillis must be greater than 0 or INFINITE_TIMEOUT");
+        }
+        if (idleTimeoutMillis <= 0 && idleTimeoutMillis != INFINITE_TIMEOUT) {
+            throw new IllegalArgumentException("idleTimeoutMillis must be greater than 0 or INFINITE_TIMEOUT");
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    public synchronized void start(Process processToMonitor) {
+        super.start(processToMonitor);
+        process = processToMonitor;
+        if (timeoutMillis != INFINITE_TIMEOUT) {
+            deadline = SharedScheduler.schedule(this::timedOut, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (idleTimeoutMillis != INFINITE_TIMEOUT) {
+            lastOutputNanos = System.nanoTime();
+            idleDeadline = SharedScheduler.schedule(this::checkIdle, idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public synchronized void stop() {
+        if (deadline != null) {
+            deadline.cancel(false);
+            deadline = null;
+        }
+        if (idleDeadline != null) {
+            idleDeadline.cancel(false);
+            idleDeadline = null;
+        }
+        process = null;
         super.stop();
         stopped = true;
     }
 
+    /**
+     * Records that the process just produced output, which pushes the idle timeout back.
+     *
+     * <p>Meant to be called from the stream pump threads for every write: it's a single volatile
+     * store, and takes no lock. The idle deadline is only re-armed lazily, when it fires early.
+     */
+    public void outputSeen() {
+        lastOutputNanos = System.nanoTime();
+    }
+
+    private synchronized void timedOut() {
+        if (deadline == null) {
+            return;
+        }
+        List<ProcessHandle> descendants = List.of();
+        if (process != null && process.isAlive()) {
+            logger.warn("Process {} exceeded its timeout of {}ms, destroying it", process.pid(), timeoutMillis);
+            JfrEvents.watchdogKill(process.pid(), "timeout", timeoutMillis);
+            descendants = descendants(process);
+        }
+        timeoutOccured(null);
+        descendants.forEach(ProcessHandle::destroy);
+    }
+
+    private synchronized void checkIdle() {
+        if (idleDeadline == null) {
+            return;
+        }
+        long remainingNanos =
+                TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis) - (System.nanoTime() - lastOutputNanos);
+        if (remainingNanos > 0) {
+            idleDeadline = SharedScheduler.schedule(this::checkIdle, remainingNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        List<ProcessHandle> descendants = List.of();
+        if (process != null && process.isAlive()) {
+            logger.warn(
+                    "Process {} produced no output for {}ms, destroying it", process.pid(), idleTimeoutMillis);
+            JfrEvents.watchdogKill(process.pid(), "idle output", idleTimeoutMillis);
+            descendants = descendants(process);
+        }
+        timeoutOccured(null);
+        descendants.forEach(ProcessHandle::destroy);
+    }
+
+    // A hung tool's children would otherwise keep its STDOUT/STDERR pipes open, and with that the
+    // stream pumps and the completion of the process running. They're collected before the process
+    // itself is destroyed, as they're re-parented (and can no longer be found) once it's gone.
+    private static List<ProcessHandle> descendants(Process process) {
+        try {
+            return process.descendants().toList();
+        } catch (UnsupportedOperationException e) {
+            logger.debug("Cannot list descendants of process {}", process, e);
+            return List.of();
+        }
+    }
+
     /**
      * Checks whether this watchdog has been stopped.
      *
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Process-wide pool of stream pump threads shared by all {@link ManagedProcess} instances which use
+ * {@link MultiplexedPumpStreamHandler}.
+ *
+ * <p>Process pipes can't be read without blocking in Java, so the pool only ever reads what {@link
+ * InputStream#available()} reports to be there already. All registered streams sit in one queue;
+ * a pump thread takes the stream at its head, copies at most one chunk from it, and puts it back at
+ * the tail. A chatty process therefore gets one chunk per round like every other one, and can't
+ * starve them. When a pump thread went through all streams without finding anything to copy, it
+ * backs off exponentially, from {@value #MIN_IDLE_NANOS}ns up to {@value #MAX_IDLE_NANOS}ns. While
+ * no stream is registered at all, pump threads park until {@link #register} wakes them up.
+ *
+ * <p>The end of a stream can't be detected that way; {@link Pump#finish()} copies what's left
+ * after the process exited, on the calling thread.
+ *
+ * <p>The number of pump threads scales with the number of cores, not with the number of
+ * processes. They are daemon threads, created lazily on first use. As they are shared, output
+ * streams written to must not block for long.
+ *
+ * @author Nikan Radan
+ */
+final class StreamMultiplexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamMultiplexer.class);
+
+    static final int CHUNK_SIZE = 8192;
+    static final int THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final long MIN_IDLE_NANOS = 50_000;
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final ConcurrentLinkedQueue<Pump> PUMPS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger REGISTERED = new AtomicInteger();
+    private static final Thread[] PUMP_THREADS = new Thread[THREADS];
+
+    static {
+        for (int i = 0; i < THREADS; i++) {
+            PUMP_THREADS[i] =
+                    ThreadFactories.newThread(
+                            Executors.defaultThreadFactory(),
+                            StreamMultiplexer::run,
+                            "ExecStreamMultiplexer-",
+                            true);
+            PUMP_THREADS[i].start();
+        }
+    }
+
+    private StreamMultiplexer() {}
+
+    /**
+     * Starts copying everything from {@code is} to {@code os}.
+     *
+     * @param is the stream to read, typically the STDOUT or STDERR of a process
+     * @param os where to write what was read
+     * @return the registered pump, which must be {@link Pump#finish() finished} once the process
+     *     exited
+     */
+    static Pump register(InputStream is, OutputStream os) {
+        Pump pump = new Pump(is, os);
+        REGISTERED.incrementAndGet();
+        PUMPS.add(pump);
+        // Don't let the first output of a new process wait out the back-off of idle pump threads
+        for (Thread thread : PUMP_THREADS) {
+            LockSupport.unpark(thread);
+        }
+        return pump;
+    }
+
+    private static void run() {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        long idleNanos = MIN_IDLE_NANOS;
+        int idleStreak = 0;
+        while (true) {
+            Pump pump = PUMPS.poll();
+            if (pump == null) {
+                idleStreak = 0;
+                if (REGISTERED.get() == 0) {
+                    // Nothing to pump until register() unparks this thread
+                    idleNanos = MIN_IDLE_NANOS;
+                    LockSupport.park();
+                } else {
+                    // Another pump thread holds the only streams for now
+                    idleNanos = park(idleNanos);
+                }
+                continue;
+            }
+            boolean copied;
+            synchronized (pump) {
+                if (pump.finished) {
+                    continue;
+                }
+                copied = pump.copyAvailable(buffer);
+                if (!pump.finished) {
+                    PUMPS.add(pump);
+                }
+            }
+            if (copied) {
+                idleStreak = 0;
+                idleNanos = MIN_IDLE_NANOS;
+            } else if (++idleStreak >= REGISTERED.get()) {
+                idleStreak = 0;
+                idleNanos = park(idleNanos);
+            }
+        }
+    }
+
+    private static long park(long idleNanos) {
+        LockSupport.parkNanos(idleNanos);
+        return Math.min(idleNanos * 2, MAX_IDLE_NANOS);
+    }
+
+    /** A stream registered with the {@link StreamMultiplexer}. */
+    static final class Pump {
+        private final InputStream is;
+        private final OutputStream os;
+        private boolean finished;
+
+        private Pump(InputStream is, OutputStream os) {
+            this.is = is;
+            this.os = os;
+        }
+
+        // Callers hold the lock of this pump, and nobody reads the stream once it's finished
+        private boolean copyAvailable(byte[] buffer) {
+            try {
+                int available = is.available();
+                if (available <= 0) {
+                    return false;
+                }
+                int length = is.read(buffer, 0, Math.min(available, buffer.length));
+                if (length < 0) {
+                    markFinished();
+                    return false;
+                }
+                os.write(buffer, 0, length);
+                return true;
+            } catch (Exception e) {
+                // Like StreamPumper, which happens quite often with the watchdog; anything else
+                // must not kill the pump thread, which is shared with other processes
+                logger.trace("Stopped pumping {}", is, e);
+                markFinished();
+                return false;
+            }
+        }
+
+        private void markFinished() {
+            if (!finished) {
+                finished = true;
+                REGISTERED.decrementAndGet();
+            }
+        }
+
+        /**
+         * Unregisters this pump and copies what's left in the stream, blocking until its end.
+         * Meant to be called once the process exited.
+         */
+        void finish() {
+            // Waits for a chunk a pump thread is copying, but not for the end of the stream: a
+            // grandchild may keep it open, and pump threads polling this pump must not wait for it
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                markFinished();
+            }
+            PUMPS.remove(this);
+            byte[] buffer = new byte[CHUNK_SIZE];
+            try {
+                int length;
+                while ((length = is.read(buffer)) > 0) {
+                    os.write(buffer, 0, length);
+                }
+            } catch (Exception e) {
+                logger.trace("Stopped pumping {}", is, e);
+            }
+        }
+    }
+}
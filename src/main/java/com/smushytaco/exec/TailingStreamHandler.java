@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.apache.commons.exec.ExecuteStreamHandler;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * {@link ExecuteStreamHandler} for a process whose STDOUT and/or STDERR are redirected to files by
+ * the OS, see {@link ManagedProcessBuilder#redirectStdOutTo(Path)}.
+ *
+ * <p>The process writes straight to the files, without a pipe, and nothing pumps its output. To
+ * still feed the console, waiting for console messages and any added output streams, this handler
+ * tails the files with {@link FileTailInputStream} on the shared {@link StreamMultiplexer} pump
+ * threads. Streams which aren't redirected are handled by the delegate.
+ *
+ * @author Nikan Radan
+ */
+class TailingStreamHandler implements ExecuteStreamHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TailingStreamHandler.class);
+
+    private final ExecuteStreamHandler delegate;
+    private final @Nullable Tail stdout;
+    private final @Nullable Tail stderr;
+
+    TailingStreamHandler(ExecuteStreamHandler delegate, @Nullable Tail stdout, @Nullable Tail stderr) {
+        this.delegate = delegate;
+        this.stdout = stdout;
+        this.stderr = stderr;
+    }
+
+    @Override
+    public void setProcessInputStream(OutputStream os) throws IOException {
+        delegate.setProcessInputStream(os);
+    }
+
+    @Override
+    public void setProcessOutputStream(InputStream is) throws IOException {
+        if (stdout == null) {
+            delegate.setProcessOutputStream(is);
+        }
+    }
+
+    @Override
+    public void setProcessErrorStream(InputStream is) throws IOException {
+        if (stderr == null) {
+            delegate.setProcessErrorStream(is);
+        }
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (stdout != null) {
+            stdout.start();
+        }
+        if (stderr != null) {
+            stderr.start();
+        }
+        delegate.start();
+    }
+
+    @Override
+    public void stop() throws IOException {
+        try {
+            delegate.stop();
+        } finally {
+            if (stdout != null) {
+                stdout.stop();
+            }
+            if (stderr != null) {
+                stderr.stop();
+            }
+        }
+    }
+
+    /** A file the process writes to, and where to copy what it writes. */
+    static final class Tail {
+        private final Path file;
+        private final long startPosition;
+        private final OutputStream target;
+        private @Nullable FileTailInputStream input;
+        private StreamMultiplexer.@Nullable Pump pump;
+
+        /**
+         * Creates a tail of a file, which must be created before the process is launched, so that
+         * for a file which is appended to, output of previous runs is skipped.
+         *
+         * @param file the file the process writes to
+         * @param append whether the process appends to the file, instead of truncating it
+         * @param target where to copy what the process writes
+         */
+        Tail(Path file, boolean append, OutputStream target) {
+            this.file = file;
+            this.target = target;
+            long size = 0;
+            if (append) {
+                try {
+                    size = Files.size(file);
+                } catch (IOException e) {
+                    logger.trace("{} doesn't exist yet, tailing it from the start", file, e);
+                }
+            }
+            this.startPosition = size;
+        }
+
+        void start() throws IOException {
+            input = new FileTailInputStream(file, startPosition);
+            pump = StreamMultiplexer.register(input, target);
+        }
+
+        void stop() throws IOException {
+            if (pump != null) {
+                pump.finish();
+            }
+            if (input != null) {
+                input.close();
+            }
+            target.flush();
+        }
+    }
+}
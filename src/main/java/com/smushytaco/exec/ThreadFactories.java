@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Resolves the {@link ThreadFactory} used for the executor and stream pump threads of a
+ * {@link ManagedProcess}.
+ *
+ * @author Nikan Radan
+ */
+final class ThreadFactories {
+
+    private ThreadFactories() {}
+
+    /**
+     * Returns the JVM-wide default: virtual threads if the {@value
+     * ManagedProcessBuilder#VIRTUAL_THREADS_PROPERTY} system property is {@code true}, platform
+     * threads from {@link Executors#defaultThreadFactory()} otherwise.
+     *
+     * @return the default thread factory
+     */
+    static ThreadFactory defaultFactory() {
+        return Boolean.getBoolean(ManagedProcessBuilder.VIRTUAL_THREADS_PROPERTY)
+                ? virtual()
+                : Executors.defaultThreadFactory();
+    }
+
+    /**
+     * Returns a factory for virtual threads.
+     *
+     * @return a new virtual thread factory
+     */
+    static ThreadFactory virtual() {
+        return Thread.ofVirtual().name("exec-virtual-", 0).factory();
+    }
+
+    /**
+     * Like Apache Commons Exec's {@code ThreadUtil.newThread()}, but tolerates virtual threads,
+     * which are always daemon threads and reject {@code setDaemon(false)}.
+     *
+     * @param threadFactory the factory to create the thread with
+     * @param runnable what the thread runs
+     * @param prefix prefix for the thread name
+     * @param daemon whether a platform thread should be a daemon thread
+     * @return the new, unstarted thread
+     */
+    static Thread newThread(ThreadFactory threadFactory, Runnable runnable, String prefix, boolean daemon) {
+        Thread thread = threadFactory.newThread(runnable);
+        if (thread == null) {
+            throw new IllegalStateException(
+                    "The ThreadFactory " + threadFactory + " could not construct a thread for '" + prefix + "'");
+        }
+        thread.setName(prefix + thread.getName());
+        if (!thread.isVirtual()) {
+            thread.setDaemon(daemon);
+        }
+        return thread;
+    }
+}
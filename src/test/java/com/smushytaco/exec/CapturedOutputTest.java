@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests CapturedOutput.
+ *
+ * @author Nikan Radan
+ */
+class CapturedOutputTest {
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    void spansSegments(@TempDir Path dir) throws IOException {
+        byte[] expected = randomBytes(DirectBufferPool.SEGMENT_SIZE * 2 + 123);
+        CapturedOutput captured = new CapturedOutput();
+        captured.write(expected[0]);
+        captured.write(expected, 1, expected.length - 1);
+
+        assertEquals(expected.length, captured.size());
+        assertEquals(3, captured.asByteBuffers().length);
+        assertArrayEquals(expected, captured.asInputStream().readAllBytes());
+
+        ByteBuffer buffer = captured.asByteBuffer();
+        assertTrue(buffer.isReadOnly());
+        byte[] fromBuffer = new byte[buffer.remaining()];
+        buffer.get(fromBuffer);
+        assertArrayEquals(expected, fromBuffer);
+
+        Path file = dir.resolve("captured.bin");
+        try (FileChannel channel =
+                FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            assertEquals(expected.length, captured.transferTo(channel));
+        }
+        assertArrayEquals(expected, Files.readAllBytes(file));
+
+        captured.release();
+        assertEquals(0, captured.size());
+        assertThrows(IOException.class, () -> captured.write(1));
+    }
+
+    @Test
+    void singleSegmentIsView() throws IOException {
+        CapturedOutput captured = new CapturedOutput();
+        captured.write(new byte[] {0, '\r', '\n', (byte) 0xFF});
+        ByteBuffer buffer = captured.asByteBuffer();
+        assertTrue(buffer.isDirect());
+        assertEquals(4, buffer.remaining());
+        assertEquals((byte) 0xFF, buffer.get(3));
+        captured.release();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests CheckingConsoleOutputStream.
+ *
+ * @author Nikan Radan
+ */
+class CheckingConsoleOutputStreamTest {
+
+    private static List<String> find(String first, List<String> next, Charset charset, byte[] output)
+            throws IOException {
+        List<String> found = new ArrayList<>();
+        try (CheckingConsoleOutputStream out =
+                new CheckingConsoleOutputStream(
+                        first,
+                        literal -> {
+                            found.add(literal);
+                            return found.size() < next.size() + 1 ? next.get(found.size() - 1) : null;
+                        },
+                        charset)) {
+            for (int off = 0; off < output.length; off += 3) {
+                out.write(output, off, Math.min(3, output.length - off));
+            }
+        }
+        return found;
+    }
+
+    @Test
+    void findsLiteralsInBytesAndChars() throws IOException {
+        String text = "Starting…\r\nListening on :80\r\nÜber Öl\rdone\r";
+        List<String> next = List.of("Listening on :80\n", "Über", "Öl\n", "done\r\n");
+        // The callback gets the literals with normalized newlines
+        List<String> expected = List.of("…", "Listening on :80\n", "Über", "Öl\n", "done\n");
+        assertEquals(expected, find("…", next, StandardCharsets.UTF_8, text.getBytes(StandardCharsets.UTF_8)));
+        // UTF-16 isn't ASCII-compatible, so the output is decoded
+        assertEquals(expected, find("…", next, StandardCharsets.UTF_16LE, text.getBytes(StandardCharsets.UTF_16LE)));
+    }
+
+    @Test
+    void switchesToCharsForReplacementCharacter() throws IOException {
+        byte[] output = {'o', 'k', ' ', (byte) 0xFF, '!'};
+        assertEquals(
+                List.of("ok", "�!"), find("ok", List.of("�!"), StandardCharsets.UTF_8, output));
+    }
+}
@@ -16,12 +16,42 @@
 
 package com.smushytaco.exec;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.apache.commons.lang3.SystemUtils;
 import org.jspecify.annotations.Nullable;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -101,6 +131,162 @@ class ManagedProcessTest {
         assertThrows(ManagedProcessException.class, p::start);
     }
 
+    @Test
+    void startAsync() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        List<CompletableFuture<ManagedProcess>> starts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            starts.add(new ManagedProcessBuilder("echo").addArgument("hello-" + i).build().startAsync().toCompletableFuture());
+        }
+        for (int i = 0; i < starts.size(); i++) {
+            ManagedProcess p = starts.get(i).get(10, TimeUnit.SECONDS);
+            assertEquals(0, p.waitForExit());
+            assertEquals("hello-" + i, p.getConsole());
+        }
+
+        ExecutionException e =
+                assertThrows(
+                        ExecutionException.class,
+                        () -> new ManagedProcessBuilder("someExec").build().startAsync().toCompletableFuture().get(10, TimeUnit.SECONDS));
+        assertInstanceOf(ManagedProcessException.class, e.getCause());
+    }
+
+    @Test
+    void waitForConsoleMessageAsync() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        List<ManagedProcess> processes = new ArrayList<>();
+        List<CompletableFuture<Readiness>> readiness = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ManagedProcess p =
+                    new ManagedProcessBuilder("sh")
+                            .addArgument("-c")
+                            .addArgument("sleep 0.5; echo ready; exec sleep 30", false)
+                            .build();
+            processes.add(p);
+            readiness.add(p.startAndWaitForConsoleMessageAsync("ready", 20_000));
+        }
+        long start = System.nanoTime();
+        CompletableFuture.allOf(readiness.toArray(new CompletableFuture[0])).get(20, TimeUnit.SECONDS);
+        // In parallel, not one after another
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(2000));
+        for (CompletableFuture<Readiness> r : readiness) {
+            assertTrue(r.get().isReady());
+            assertEquals("ready", r.get().getMatchedText());
+            assertTrue(r.get().getElapsedMs() >= 400);
+        }
+        for (ManagedProcess p : processes) {
+            p.destroy();
+        }
+
+        ManagedProcess silent = new ManagedProcessBuilder("sleep").addArgument("30").build();
+        assertFalse(silent.startAndWaitForConsoleMessageAsync("ready", 200).get(10, TimeUnit.SECONDS).isReady());
+        silent.destroy();
+
+        ManagedProcess exiting = new ManagedProcessBuilder("echo").addArgument("bye").build();
+        ExecutionException e =
+                assertThrows(
+                        ExecutionException.class,
+                        () -> exiting.startAndWaitForConsoleMessageAsync("ready", 20_000).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(ManagedProcessException.class, e.getCause());
+    }
+
+    @Test
+    void readinessProbes(@TempDir Path dir) throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        Path file = dir.resolve("started");
+        Path socket = dir.resolve("control.sock");
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+                ServerSocketChannel unix = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            ManagedProcess p =
+                    new ManagedProcessBuilder("sh")
+                            .addArgument("-c")
+                            .addArgument("sleep 0.3; touch " + file + "; exec sleep 30", false)
+                            .addReadinessProbe(ReadinessProbe.file(file))
+                            .addReadinessProbe(ReadinessProbe.tcpPort(server.getLocalPort()))
+                            .addReadinessProbe(ReadinessProbe.unixSocket(socket))
+                            .build();
+            CompletableFuture<Readiness> readiness = p.startAndWaitForReadinessAsync(20_000);
+            Thread.sleep(100);
+            unix.bind(UnixDomainSocketAddress.of(socket));
+            Readiness ready = readiness.get(20, TimeUnit.SECONDS);
+            assertTrue(ready.isReady());
+            assertTrue(ready.getElapsedMs() >= 250);
+            p.destroy();
+        }
+
+        ManagedProcess never =
+                new ManagedProcessBuilder("sleep")
+                        .addArgument("30")
+                        .addReadinessProbe(ReadinessProbe.of("never", () -> false))
+                        .build();
+        assertFalse(never.startAndWaitForReadinessMaxMs(200));
+        never.destroy();
+
+        ManagedProcess exiting =
+                new ManagedProcessBuilder("true").addReadinessProbe(ReadinessProbe.file(file.resolveSibling("nope"))).build();
+        assertThrows(ManagedProcessException.class, () -> exiting.startAndWaitForReadinessMaxMs(20_000));
+    }
+
+    @Test
+    void blockingProbeDoesntDelayTimeouts() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        CountDownLatch release = new CountDownLatch(1);
+        ManagedProcess probed =
+                new ManagedProcessBuilder("sleep")
+                        .addArgument("30")
+                        .addReadinessProbe(ReadinessProbe.of("blocking", () -> {
+                            try {
+                                return release.await(30, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return false;
+                            }
+                        }))
+                        .build();
+        try {
+            CompletableFuture<Readiness> readiness = probed.startAndWaitForReadinessAsync(20_000);
+            ManagedProcess timingOut =
+                    new ManagedProcessBuilder("sleep").addArgument("30").setTimeoutMs(300).build();
+            long start = System.nanoTime();
+            timingOut.start();
+            assertThrows(ManagedProcessException.class, () -> timingOut.waitForExitMaxMs(10_000));
+            assertTrue(timingOut.watchDogKilledProcess());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+            release.countDown();
+            assertTrue(readiness.get(20, TimeUnit.SECONDS).isReady());
+        } finally {
+            release.countDown();
+            probed.destroy();
+        }
+    }
+
+    @Test
+    void notifySocket() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS || !Files.isExecutable(Path.of("/usr/bin/python3"))) {
+            return;
+        }
+        String notify =
+                "import os, socket; s = socket.socket(socket.AF_UNIX); s.connect(os.environ['NOTIFY_SOCKET']); "
+                        + "s.sendall(b'STATUS=warming up\\nREADY=1\\n'); s.close()";
+        ManagedProcess p =
+                new ManagedProcessBuilder("sh")
+                        .addArgument("-c")
+                        .addArgument("/usr/bin/python3 -c \"" + notify + "\"; exec sleep 30", false)
+                        .setNotifySocketVariable("NOTIFY_SOCKET")
+                        .build();
+        assertTrue(p.startAndWaitForReadinessMaxMs(20_000));
+        assertEquals("warming up", p.getNotifyStatus());
+        p.destroy();
+    }
+
     @Test
     void waitForSeenMessageIfAlreadyTerminated()
             throws IOException, ManagedProcessInterruptedException {
@@ -247,6 +433,592 @@ class ManagedProcessTest {
         assertFalse(p.getConsole().isEmpty());
     }
 
+    @Test
+    void whoamiOnVirtualThreads() throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        ManagedProcess p =
+                new ManagedProcessBuilder("/usr/bin/whoami").useVirtualThreads().build().start();
+        assertEquals(0, p.waitForExit());
+        assertFalse(p.getConsole().isEmpty());
+    }
+
+    @Test
+    void asyncExitNotification() throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        TestListener listener = new TestListener();
+        ManagedProcess p =
+                new ManagedProcessBuilder("/usr/bin/whoami")
+                        .setAsyncExitNotification(true)
+                        .setProcessListener(listener)
+                        .build()
+                        .start();
+        assertEquals(0, p.waitForExit());
+        assertFalse(p.getConsole().isEmpty());
+        assertEquals(0, listener.expectedExitValue);
+    }
+
+    @Test
+    void asyncExitNotificationReportsFailures()
+            throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        TestListener listener = new TestListener();
+        ManagedProcess p =
+                new ManagedProcessBuilder("sh")
+                        .addArgument("-c")
+                        .addArgument("exit 3", false)
+                        .setAsyncExitNotification(true)
+                        .setProcessListener(listener)
+                        .build();
+        p.start();
+        assertThrows(ManagedProcessException.class, p::waitForExit);
+        assertEquals(3, listener.failureExitValue);
+        assertThrows(
+                ManagedProcessException.class,
+                new ManagedProcessBuilder("someExec").setAsyncExitNotification(true).build()::start);
+    }
+
+    @Test
+    void multiplexedStreamPumps() throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        ByteArrayOutputStream chattyOut = new ByteArrayOutputStream();
+        ManagedProcess chatty =
+                new ManagedProcessBuilder("seq")
+                        .addArgument("1")
+                        .addArgument("20000")
+                        .addStdOut(chattyOut)
+                        .setMultiplexedStreamPumps(true)
+                        .build()
+                        .start();
+        List<ManagedProcess> quiet = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            quiet.add(
+                    new ManagedProcessBuilder("cat")
+                            .setInputStream(
+                                    new ByteArrayInputStream(("hello " + i).getBytes(StandardCharsets.UTF_8)))
+                            .setMultiplexedStreamPumps(true)
+                            .build()
+                            .start());
+        }
+        for (int i = 0; i < quiet.size(); i++) {
+            assertEquals(0, quiet.get(i).waitForExit());
+            assertEquals("hello " + i, quiet.get(i).getConsole());
+        }
+        assertEquals(0, chatty.waitForExit());
+        String[] lines = chattyOut.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(20000, lines.length);
+        assertEquals("20000", lines[lines.length - 1]);
+    }
+
+    @Test
+    void captureStdOut(@TempDir Path dir) throws IOException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        byte[] expected = new byte[1024 * 1024];
+        new Random(42).nextBytes(expected);
+        Path file = dir.resolve("binary.bin");
+        Files.write(file, expected);
+
+        ManagedProcess p =
+                new ManagedProcessBuilder("cat").addArgument(file).setCaptureStdOut(true).build();
+        assertThrows(ManagedProcessException.class, p::getCapturedStdOut);
+        p.start();
+        assertEquals(0, p.waitForExit());
+        CapturedOutput captured = p.getCapturedStdOut();
+        assertEquals(expected.length, captured.size());
+        assertArrayEquals(expected, captured.asInputStream().readAllBytes());
+        assertTrue(p.getConsole().isEmpty());
+        captured.release();
+    }
+
+    @Test
+    void waitForAnyConsoleMessageFailsFast() throws IOException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        Map<String, Outcome> messages = Map.of("listening", Outcome.READY, "Address already in use", Outcome.FAILED);
+        ManagedProcess failing =
+                new ManagedProcessBuilder("sh")
+                        .addArgument("-c")
+                        .addArgument("echo 'bind: Address already in use' >&2; exec sleep 30", false)
+                        .build();
+        long start = System.nanoTime();
+        ManagedProcessException e =
+                assertThrows(
+                        ManagedProcessException.class,
+                        () -> failing.startAndWaitForAnyConsoleMessage(messages, 20_000));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        assertTrue(e.getMessage().contains("Address already in use"));
+        failing.destroy();
+
+        ManagedProcess starting =
+                new ManagedProcessBuilder("sh")
+                        .addArgument("-c")
+                        .addArgument("echo starting; echo listening; exec sleep 30", false)
+                        .build();
+        assertEquals("listening", starting.startAndWaitForAnyConsoleMessage(messages, 20_000));
+        starting.destroy();
+    }
+
+    @Test
+    void waitForConsolePattern() throws IOException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        ManagedProcess p =
+                new ManagedProcessBuilder("sh")
+                        .addArgument("-c")
+                        .addArgument("echo starting; echo 'listening on port 4711' >&2; exec sleep 30", false)
+                        .build();
+        MatchResult match = p.startAndWaitForConsolePattern(Pattern.compile("listening on port (\\d+)"), 20_000);
+        assertNotNull(match);
+        assertEquals("4711", match.group(1));
+        p.destroy();
+    }
+
+    @Test
+    void redirectStdOutToFile(@TempDir Path dir) throws IOException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        Path file = dir.resolve("out.log");
+        ManagedProcess p =
+                new ManagedProcessBuilder("sh")
+                        .addArgument("-c")
+                        .addArgument("echo out; echo err >&2; sleep 0.2; echo ready; exec sleep 30", false)
+                        .redirectStdOutTo(file)
+                        .build();
+        assertTrue(p.startAndWaitForConsoleMessageMaxMs("ready", 5000));
+        p.destroy();
+        assertEquals("out\nready\n", Files.readString(file));
+        assertTrue(p.getConsole().contains("out"));
+        assertTrue(p.getConsole().contains("err"));
+    }
+
+    @Test
+    void appendStdErrToFile(@TempDir Path dir) throws IOException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        Path file = dir.resolve("err.log");
+        for (String run : new String[] {"first", "second"}) {
+            ManagedProcess p =
+                    new ManagedProcessBuilder("sh")
+                            .addArgument("-c")
+                            .addArgument("echo " + run + " >&2", false)
+                            .appendStdErrTo(file)
+                            .build()
+                            .start();
+            assertEquals(0, p.waitForExit());
+            assertEquals(run, p.getConsole());
+        }
+        assertEquals("first\nsecond\n", Files.readString(file));
+    }
+
+    @Test
+    void pipeline() throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        ManagedPipeline pipeline =
+                new ManagedPipeline(
+                        new ManagedProcessBuilder("sh")
+                                .addArgument("-c")
+                                .addArgument("printf 'b\\na\\nc\\n'", false),
+                        new ManagedProcessBuilder("sh")
+                                .addArgument("-c")
+                                .addArgument("sort; echo sorted >&2", false),
+                        new ManagedProcessBuilder("tr").addArgument("a-z").addArgument("A-Z"));
+        assertEquals(0, pipeline.start().waitForExit());
+        assertFalse(pipeline.isAlive());
+        List<ManagedProcess> stages = pipeline.getStages();
+        assertEquals("sorted", stages.get(1).getConsole());
+        assertEquals("A\nB\nC", stages.get(2).getConsole());
+    }
+
+    @Test
+    void lifecyclePhases() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        LatencyHistograms histograms = new LatencyHistograms();
+        ManagedProcess p =
+                new ManagedProcessBuilder("sh")
+                        .addArgument("-c")
+                        .addArgument("echo listening; exec sleep 30", false)
+                        .setLifecycleMetrics(histograms)
+                        .build();
+        assertEquals(-1, p.getPhaseNanos(LifecyclePhase.STARTING));
+        assertTrue(p.startAndWaitForConsoleMessageMaxMs("listening", 20_000));
+        p.destroy();
+        LifecyclePhase previous = LifecyclePhase.BUILT;
+        for (LifecyclePhase phase : List.of(
+                LifecyclePhase.STARTING, LifecyclePhase.LAUNCHING, LifecyclePhase.LAUNCHED, LifecyclePhase.FIRST_OUTPUT,
+                LifecyclePhase.READY, LifecyclePhase.COMPLETED)) {
+            assertTrue(p.getNanosBetween(previous, phase) >= 0, previous + " -> " + phase);
+            previous = phase;
+        }
+        assertTrue(p.getNanosBetween(LifecyclePhase.LAUNCHED, LifecyclePhase.STREAMS_STARTED) >= 0);
+        assertNotEquals(-1, p.getPhaseNanos(LifecyclePhase.EXITED));
+        assertEquals(0, histograms.getHistogram(LifecyclePhase.BUILT).getCount());
+        assertEquals(1, histograms.getHistogram(LifecyclePhase.READY).getCount());
+        assertEquals(1, histograms.getHistogram(LifecyclePhase.COMPLETED).getCount());
+    }
+
+    @Test
+    void jfrEvents(@TempDir Path dir) throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        Path dump = dir.resolve("exec.jfr");
+        ManagedProcess p;
+        ManagedProcess destroyed;
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("ProcessSpawn", "StreamsStarted", "ProcessReady", "ProcessExit", "ProcessDestroy")) {
+                recording.enable("com.smushytaco.exec." + event);
+            }
+            recording.enable("com.smushytaco.exec.StreamActivity").withPeriod(Duration.ofMillis(50));
+            recording.start();
+            p = new ManagedProcessBuilder("sh")
+                    .addArgument("-c")
+                    .addArgument("echo one; echo listening; sleep 0.5", false)
+                    .build();
+            assertTrue(p.startAndWaitForConsoleMessageMaxMs("listening", 20_000));
+            assertEquals(0, p.waitForExit());
+            destroyed = new ManagedProcessBuilder("sleep").addArgument("30").build().start();
+            destroyed.destroy();
+            recording.stop();
+            recording.dump(dump);
+        }
+        Map<String, List<RecordedEvent>> events = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            events.computeIfAbsent(event.getEventType().getName().replace("com.smushytaco.exec.", ""), k -> new ArrayList<>())
+                    .add(event);
+        }
+        assertEquals(2, events.get("ProcessSpawn").size());
+        assertTrue(events.get("StreamsStarted").size() >= 2);
+        assertEquals(1, events.get("ProcessReady").size());
+        assertEquals(1, events.get("ProcessDestroy").size());
+        RecordedEvent exit =
+                events.get("ProcessExit").stream().filter(e -> !e.getBoolean("failed")).findFirst().orElseThrow();
+        assertEquals(0, exit.getInt("exitValue"));
+        long pid = exit.getLong("pid");
+        assertTrue(events.get("StreamActivity").stream()
+                .anyMatch(e -> e.getLong("pid") == pid && e.getLong("stdoutLines") == 2 && e.getLong("stdoutBytes") == 14));
+    }
+
+    @Test
+    void processGroup() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        List<ManagedProcess> daemons = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            daemons.add(new ManagedProcessBuilder("sh").addArgument("-c").addArgument("exec sleep 30", false).build());
+        }
+        ManagedProcessGroup group = new ManagedProcessGroup(4, daemons);
+        group.start(20_000);
+        assertTrue(daemons.stream().allMatch(ManagedProcess::isAlive));
+        long start = System.nanoTime();
+        group.destroy(10_000);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertFalse(group.isAlive());
+        assertTrue(group.allExited().isDone());
+        assertFalse(group.anyFailed().isDone());
+
+        ManagedProcess failing =
+                new ManagedProcessBuilder("sh").addArgument("-c").addArgument("sleep 0.2; exit 3", false).build();
+        ManagedProcessGroup failingGroup =
+                new ManagedProcessGroup(2, new ManagedProcessBuilder("sleep").addArgument("30").build(), failing);
+        failingGroup.startAsync(20_000);
+        assertSame(failing, failingGroup.anyFailed().get(20, TimeUnit.SECONDS));
+        failingGroup.destroy(10_000);
+        assertTrue(failingGroup.allExited().isDone());
+
+        ManagedProcessGroup neverStarted =
+                new ManagedProcessGroup(2, new ManagedProcessBuilder("sleep").addArgument("30").build());
+        neverStarted.destroy(1_000);
+        assertTrue(neverStarted.allExited().isDone());
+    }
+
+    @Test
+    void processGroupDoesntParkThreadPerStart() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        AtomicBoolean gate = new AtomicBoolean();
+        List<ManagedProcess> daemons = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            daemons.add(
+                    new ManagedProcessBuilder("sh")
+                            .addArgument("-c")
+                            .addArgument("exec sleep 30", false)
+                            .addReadinessProbe(ReadinessProbe.of("gate", gate::get))
+                            .build());
+        }
+        ManagedProcessGroup group = new ManagedProcessGroup(500, daemons);
+        CompletableFuture<ManagedProcessGroup> ready = group.startAsync(20_000);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!daemons.stream().allMatch(ManagedProcess::isAlive) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // All 20 are starting, but none of the group's threads waits for any of them
+        long starters =
+                Thread.getAllStackTraces().keySet().stream()
+                        .filter(t -> t.getName().startsWith("ExecGroupStarter-"))
+                        .count();
+        assertTrue(starters <= ManagedProcessGroup.STARTER_THREADS, starters + " starter threads");
+        assertFalse(ready.isDone());
+        gate.set(true);
+        assertSame(group, ready.get(20, TimeUnit.SECONDS));
+        group.destroy(10_000);
+        assertTrue(group.allExited().isDone());
+    }
+
+    @Test
+    void pipelineReportsFailingStage() throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        TestListener listener = new TestListener();
+        ManagedPipeline pipeline =
+                new ManagedPipeline(
+                        new ManagedProcessBuilder("sh")
+                                .addArgument("-c")
+                                .addArgument("echo hello; exit 4", false)
+                                .setProcessListener(listener),
+                        new ManagedProcessBuilder("cat"));
+        pipeline.start();
+        assertThrows(ManagedProcessException.class, pipeline::waitForExit);
+        assertEquals(4, listener.failureExitValue);
+        assertEquals(0, pipeline.getStages().get(1).waitForExit());
+        assertEquals("hello", pipeline.getStages().get(1).getConsole());
+        assertThrows(
+                ManagedProcessException.class,
+                () -> new ManagedPipeline(
+                        new ManagedProcessBuilder("cat"),
+                        new ManagedProcessBuilder("cat").setInputStream(new ByteArrayInputStream(new byte[0]))));
+    }
+
+    @Test
+    void timeoutDestroysRunawayProcess() throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        ManagedProcess p = new ManagedProcessBuilder("sleep").addArgument("30").setTimeoutMs(200).build();
+        p.start();
+        assertThrows(ManagedProcessException.class, () -> p.waitForExitMaxMs(10_000));
+        assertFalse(p.isAlive());
+        assertTrue(p.watchDogKilledProcess());
+    }
+
+    @Test
+    void idleOutputTimeoutDestroysSilentProcess()
+            throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        ManagedProcess p =
+                new ManagedProcessBuilder("sh")
+                        .addArgument("-c")
+                        .addArgument("echo working; sleep 30", false)
+                        .setIdleOutputTimeoutMs(300)
+                        .build();
+        p.start();
+        assertThrows(ManagedProcessException.class, () -> p.waitForExitMaxMs(10_000));
+        assertFalse(p.isAlive());
+        assertTrue(p.watchDogKilledProcess());
+        assertTrue(p.getConsole().contains("working"));
+    }
+
+    @Test
+    void idleOutputTimeoutSparesChattyProcess()
+            throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        ManagedProcess p =
+                new ManagedProcessBuilder("sh")
+                        .addArgument("-c")
+                        .addArgument("for i in 1 2 3 4 5 6; do echo $i; sleep 0.1; done", false)
+                        .setIdleOutputTimeoutMs(400)
+                        .build();
+        p.start();
+        assertEquals(0, p.waitForExit());
+        assertFalse(p.watchDogKilledProcess());
+    }
+
+    @Test
+    void asyncSinksDontStallProcess() throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        ByteArrayOutputStream slow = new SlowOutputStream();
+        ManagedProcess dropping =
+                new ManagedProcessBuilder("seq")
+                        .addArgument("100000")
+                        .addStdOut(slow)
+                        .setAsyncSinks(4096, OverflowPolicy.DROP_NEWEST)
+                        .build()
+                        .start();
+        assertEquals(0, dropping.waitForExitMaxMs(5000));
+        assertTrue(dropping.getDroppedOutputBytes() > 0);
+        assertTrue(slow.size() < 588895);
+        assertTrue(slow.toString(StandardCharsets.UTF_8).startsWith("1\n2\n3\n"));
+
+        ByteArrayOutputStream out = new SlowOutputStream();
+        ManagedProcess blocking =
+                new ManagedProcessBuilder("seq")
+                        .addArgument("20000")
+                        .addStdOut(out)
+                        .setAsyncSinks(4096, OverflowPolicy.BLOCK)
+                        .build()
+                        .start();
+        assertEquals(0, blocking.waitForExit());
+        assertEquals(0, blocking.getDroppedOutputBytes());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("19999\n20000\n"));
+    }
+
+    @Test
+    void asyncLogging() throws ManagedProcessException, ManagedProcessInterruptedException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        ManagedProcess p =
+                new ManagedProcessBuilder("seq")
+                        .addArgument("20000")
+                        .setOutputStreamLogDispatcher(new OutputStreamLogDispatcher() {
+                            @Override
+                            public @Nullable Level dispatch(OutputStreamType type, String line) {
+                                threads.add(Thread.currentThread().getName());
+                                return null;
+                            }
+                        })
+                        .setAsyncLogging(true)
+                        .setDispatchOnLoggingThread(true)
+                        .build()
+                        .start();
+        assertEquals(0, p.waitForExit());
+        assertEquals(20000, threads.size());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("ExecLogDrainer-")));
+        assertEquals(0, p.getDroppedLogLines());
+    }
+
+    @Test
+    void stalledAsyncSinkDoesntHangExit() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStream stalled =
+                new OutputStream() {
+                    @Override
+                    public void write(int b) {
+                        write(new byte[] {(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        // Like an appender whose network connection hangs
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                };
+        try {
+            ManagedProcess p =
+                    new ManagedProcessBuilder("sh")
+                            .addArgument("-c")
+                            .addArgument("echo first; sleep 0.5; echo second", false)
+                            .addStdOut(stalled)
+                            .setAsyncSinks(4096, OverflowPolicy.DROP_NEWEST)
+                            .setOutputDrainTimeoutMs(200)
+                            .build()
+                            .start();
+            assertEquals(0, p.waitForExitMaxMs(5000));
+            assertFalse(p.isAlive());
+            assertEquals("second\n".length(), p.getDroppedOutputBytes());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void stalledLoggingDoesntHangExit() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            ManagedProcess stalled =
+                    new ManagedProcessBuilder("seq")
+                            .addArgument("3")
+                            .setOutputStreamLogDispatcher(new OutputStreamLogDispatcher() {
+                                @Override
+                                public @Nullable Level dispatch(OutputStreamType type, String line) {
+                                    try {
+                                        release.await();
+                                    } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                    }
+                                    return null;
+                                }
+                            })
+                            .setAsyncLogging(true)
+                            .setDispatchOnLoggingThread(true)
+                            .setOutputDrainTimeoutMs(200)
+                            .build()
+                            .start();
+            assertEquals(0, stalled.waitForExitMaxMs(5000));
+            assertEquals(3, stalled.getDroppedLogLines());
+        } finally {
+            release.countDown();
+        }
+
+        // The logging thread skips the abandoned lines and keeps logging those of other processes
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        ManagedProcess p =
+                new ManagedProcessBuilder("seq")
+                        .addArgument("3")
+                        .setOutputStreamLogDispatcher(new OutputStreamLogDispatcher() {
+                            @Override
+                            public @Nullable Level dispatch(OutputStreamType type, String line) {
+                                lines.add(line);
+                                return null;
+                            }
+                        })
+                        .setAsyncLogging(true)
+                        .setDispatchOnLoggingThread(true)
+                        .build()
+                        .start();
+        assertEquals(0, p.waitForExitMaxMs(5000));
+        assertEquals(List.of("1", "2", "3"), lines);
+        assertEquals(0, p.getDroppedLogLines());
+    }
+
+    static class SlowOutputStream extends ByteArrayOutputStream {
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.write(b, off, len);
+        }
+    }
+
     static class TestListener implements ManagedProcessListener {
         int expectedExitValue = Integer.MIN_VALUE;
         int failureExitValue = Integer.MIN_VALUE;
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests MultiOutputStream.
+ *
+ * @author Nikan Radan
+ */
+class MultiOutputStreamTest {
+
+    private static final class CountingOutputStream extends OutputStream {
+        final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void write(int b) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count.addAndGet(len);
+        }
+    }
+
+    @Test
+    void addAndRemove() throws IOException {
+        CountingOutputStream first = new CountingOutputStream();
+        CountingOutputStream second = new CountingOutputStream();
+        MultiOutputStream multi = new MultiOutputStream(first);
+        multi.addOutputStream(second);
+        assertEquals(List.of(first, second), multi.streams);
+        multi.write(new byte[10]);
+        multi.removeOutputStream(first);
+        multi.write(1);
+        assertEquals(List.of(second), multi.streams);
+        assertEquals(10, first.count.get());
+        assertEquals(11, second.count.get());
+    }
+
+    @Test
+    void streamsListChangesDelegates() throws IOException {
+        CountingOutputStream first = new CountingOutputStream();
+        CountingOutputStream second = new CountingOutputStream();
+        MultiOutputStream multi = new MultiOutputStream();
+        // Subclasses may still change the delegates through the protected list
+        assertTrue(multi.streams.add(second));
+        multi.streams.add(0, first);
+        assertEquals(List.of(first, second), multi.streams);
+        multi.write(1);
+        assertTrue(multi.streams.remove(first));
+        assertFalse(multi.streams.remove(first));
+        assertSame(second, multi.streams.set(0, first));
+        multi.write(1);
+        assertEquals(2, first.count.get());
+        assertEquals(1, second.count.get());
+        assertThrows(IndexOutOfBoundsException.class, () -> multi.streams.remove(1));
+        multi.streams.clear();
+        assertTrue(multi.streams.isEmpty());
+    }
+
+    @Test
+    void attachAndDetachWhileWriting() throws Exception {
+        int writers = 4;
+        int chunksPerWriter = 200_000;
+        byte[] chunk = new byte[64];
+        CountingOutputStream permanent = new CountingOutputStream();
+        MultiOutputStream multi = new MultiOutputStream(permanent);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    start.await();
+                                    for (int n = 0; n < chunksPerWriter; n++) {
+                                        multi.write(chunk, 0, chunk.length);
+                                    }
+                                    return null;
+                                }));
+            }
+            List<CountingOutputStream> transients = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    start.await();
+                                    while (writing.get()) {
+                                        CountingOutputStream sink = new CountingOutputStream();
+                                        multi.addOutputStream(sink);
+                                        Thread.yield();
+                                        multi.removeOutputStream(sink);
+                                        synchronized (transients) {
+                                            transients.add(sink);
+                                        }
+                                    }
+                                    return null;
+                                }));
+            }
+            start.countDown();
+            for (int i = 0; i < writers; i++) {
+                futures.get(i).get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+
+            assertEquals((long) writers * chunksPerWriter * chunk.length, permanent.count.get());
+            assertEquals(List.of(permanent), multi.streams);
+            assertFalse(transients.isEmpty());
+            for (CountingOutputStream sink : transients) {
+                assertEquals(0, sink.count.get() % chunk.length, "received a partial write");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
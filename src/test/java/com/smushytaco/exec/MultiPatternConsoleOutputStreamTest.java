@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests MultiPatternConsoleOutputStream and its AhoCorasick automaton.
+ *
+ * @author Nikan Radan
+ */
+class MultiPatternConsoleOutputStreamTest {
+
+    @Test
+    void findsOverlappingLiterals() throws IOException {
+        List<String> found = new ArrayList<>();
+        try (MultiPatternConsoleOutputStream out =
+                new MultiPatternConsoleOutputStream(
+                        List.of("he", "she", "his", "hers"), found::add, StandardCharsets.UTF_8)) {
+            out.write("ushers and hi".getBytes(StandardCharsets.UTF_8));
+            out.write("s\r\nshe".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of("she", "he", "hers", "his", "she", "he"), found);
+    }
+
+    @Test
+    void stopsWhenAsked() throws IOException {
+        List<String> found = new ArrayList<>();
+        MultiPatternConsoleOutputStream out =
+                new MultiPatternConsoleOutputStream(
+                        List.of("ready", "FATAL\r\n"),
+                        literal -> found.add(literal) && !literal.equals("ready"),
+                        StandardCharsets.UTF_8);
+        out.write("FATAL\rFATAL\nready\nFATAL\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(out.isFinished());
+        assertEquals(List.of("FATAL\r\n", "FATAL\r\n", "ready"), found);
+    }
+
+    @Test
+    void findsMultibyteLiteralsSplitAcrossWrites() throws IOException {
+        List<String> found = new ArrayList<>();
+        MultiPatternConsoleOutputStream out =
+                new MultiPatternConsoleOutputStream(List.of("größer", "日本"), found::add, StandardCharsets.UTF_8);
+        for (byte b : "x größer als 日本\n".getBytes(StandardCharsets.UTF_8)) {
+            out.write(b);
+        }
+        assertEquals(List.of("größer", "日本"), found);
+    }
+
+    @Test
+    void matchesIndexOf() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> literals = new ArrayList<>();
+            for (int i = 1 + random.nextInt(6); i > 0; i--) {
+                literals.add(randomText(random, 1 + random.nextInt(4)));
+            }
+            String text = randomText(random, 300);
+            AhoCorasick automaton = new AhoCorasick(literals);
+            int[] counts = new int[literals.size()];
+            for (int i = 0; i < text.length(); i++) {
+                for (int match : automaton.accept(text.charAt(i))) {
+                    counts[match]++;
+                }
+            }
+            for (int k = 0; k < literals.size(); k++) {
+                int expected = 0;
+                for (int from = text.indexOf(literals.get(k)); from >= 0; from = text.indexOf(literals.get(k), from + 1)) {
+                    expected++;
+                }
+                assertEquals(expected, counts[k], literals + " in " + text);
+            }
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append("abc".charAt(random.nextInt(3)));
+        }
+        return text.toString();
+    }
+}
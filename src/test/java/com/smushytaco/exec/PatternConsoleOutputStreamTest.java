@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests PatternConsoleOutputStream.
+ *
+ * @author Nikan Radan
+ */
+class PatternConsoleOutputStreamTest {
+
+    @Test
+    void matchesLineByLine() {
+        List<String> ports = new ArrayList<>();
+        PatternConsoleOutputStream out =
+                new PatternConsoleOutputStream(
+                        Pattern.compile("port (\\d+)$"),
+                        match -> ports.add(match.group(1)) && ports.size() < 3,
+                        32,
+                        StandardCharsets.UTF_8);
+        byte[] bytes = "port 1\r\nport 22 and port 3\rpört 4\nport 5".getBytes(StandardCharsets.UTF_8);
+        for (int off = 0; off < bytes.length; off += 5) {
+            out.write(bytes, off, Math.min(5, bytes.length - off));
+        }
+        assertEquals(List.of("1", "3"), ports);
+        out.flush();
+        assertEquals(List.of("1", "3", "5"), ports);
+        assertTrue(out.isFinished());
+    }
+
+    @Test
+    void cutsOffLongLines() {
+        List<String> found = new ArrayList<>();
+        PatternConsoleOutputStream out =
+                new PatternConsoleOutputStream(Pattern.compile("x+y?"), match -> found.add(match.group()), 4, null);
+        byte[] bytes = "xxxxxxy\nxy\n".getBytes(StandardCharsets.US_ASCII);
+        out.write(bytes, 0, bytes.length);
+        assertEquals(List.of("xxxx", "xy"), found);
+    }
+}
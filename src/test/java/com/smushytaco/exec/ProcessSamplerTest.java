@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link ProcessSampler}.
+ *
+ * @author Nikan Radan
+ */
+class ProcessSamplerTest {
+
+    @Test
+    void parseStat() {
+        ByteBuffer stat =
+                ByteBuffer.wrap(
+                        ("4242 (a (weird) name) S 1 4242 4242 0 -1 4194560 1234 0 0 0 150 25 0 0 20 0 7 0 "
+                                        + "98765 123456789 2048 18446744073709551615\n")
+                                .getBytes(StandardCharsets.US_ASCII));
+        assertEquals(150, ProcessSampler.parseStatField(stat, 11));
+        assertEquals(25, ProcessSampler.parseStatField(stat, 12));
+        assertEquals(7, ProcessSampler.parseStatField(stat, 17));
+        assertEquals(0, ProcessSampler.parseStatField(stat, 99));
+    }
+
+    @Test
+    void parseField() {
+        ByteBuffer io =
+                ByteBuffer.wrap(
+                        ("rchar: 100\nwchar: 200\nread_bytes: 4096\nwrite_bytes: 8192\ncancelled_write_bytes: 1\n")
+                                .getBytes(StandardCharsets.US_ASCII));
+        assertEquals(4096, ProcessSampler.parseField(io, "read_bytes:".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(8192, ProcessSampler.parseField(io, "write_bytes:".getBytes(StandardCharsets.US_ASCII)));
+        ByteBuffer status = ByteBuffer.wrap("Name:\tsleep\nVmRSS:\t    1234 kB\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(1234, ProcessSampler.parseField(status, "VmRSS:".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(0, ProcessSampler.parseField(status, "Threads:".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void samplesRunningProcess() throws Exception {
+        if (!Files.isReadable(Path.of("/proc/self/stat"))) {
+            return;
+        }
+        try (ProcessSampler sampler = new ProcessSampler(10, 4)) {
+            ManagedProcess p =
+                    new ManagedProcessBuilder("sh")
+                            .addArgument("-c")
+                            .addArgument("i=0; while [ $i -lt 100000 ]; do i=$((i+1)); done; exec sleep 30", false)
+                            .setProcessSampler(sampler)
+                            .build()
+                            .start();
+            ResourceSamples samples = p.getResourceSamples();
+            assertNotNull(samples);
+            assertEquals(p.getPid(), samples.getPid());
+            assertEquals(p.getPid(), p.getProcessHandle().pid());
+            assertEquals(1, sampler.getSampledCount());
+            long deadline = System.nanoTime() + 20_000_000_000L;
+            while ((samples.size() < 4 || samples.getCpuNanos(samples.size() - 1) == 0) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            synchronized (samples) {
+                int latest = samples.size() - 1;
+                assertEquals(4, samples.size());
+                assertTrue(samples.getCpuNanos(latest) > 0);
+                assertTrue(samples.getRssBytes(latest) > 0);
+                assertEquals(1, samples.getThreads(latest));
+                assertTrue(samples.getTimestampNanos(latest) > samples.getTimestampNanos(0));
+            }
+            p.destroy();
+            // Unregistered once the process completed, which destroy() may return before
+            while (sampler.getSampledCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, sampler.getSampledCount());
+        }
+    }
+
+    @Test
+    void stopsSamplingReapedProcess() throws Exception {
+        if (!Files.isReadable(Path.of("/proc/self/stat"))) {
+            return;
+        }
+        try (ProcessSampler sampler = new ProcessSampler(10, 4)) {
+            Process process = new ProcessBuilder("sleep", "30").start();
+            ResourceSamples samples = sampler.register(process.pid());
+            long deadline = System.nanoTime() + 20_000_000_000L;
+            while (samples.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            process.destroy();
+            process.waitFor();
+            // Still registered, but its stat can't be read anymore
+            Thread.sleep(200);
+            assertEquals(1, sampler.getSampledCount());
+            synchronized (samples) {
+                assertTrue(samples.size() >= 2);
+                for (int i = 0; i < samples.size(); i++) {
+                    assertEquals(1, samples.getThreads(i));
+                }
+            }
+            sampler.unregister(samples);
+            assertEquals(0, sampler.getSampledCount());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.apache.commons.exec.LogOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests RollingLogOutputStream.
+ *
+ * @author Nikan Radan
+ */
+class RollingLogOutputStreamTest {
+
+    private static void write(RollingLogOutputStream console, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        console.write(bytes, 0, bytes.length);
+    }
+
+    @Test
+    void splitsLines() {
+        RollingLogOutputStream console = new RollingLogOutputStream(10);
+        write(console, "one\ntwo\r\nthree\rfour\n\nfive");
+        assertEquals("one\ntwo\nthree\nfour\n", console.getRecentLines());
+        console.flush();
+        assertEquals("one\ntwo\nthree\nfour\n\nfive", console.getRecentLines());
+    }
+
+    @Test
+    void keepsMaxLines() {
+        RollingLogOutputStream console = new RollingLogOutputStream(3);
+        for (int i = 0; i < 1000; i++) {
+            write(console, "line " + i + "\n");
+        }
+        assertEquals("line 997\nline 998\nline 999", console.getRecentLines());
+    }
+
+    @Test
+    void growsForLongLinesAndCutsOffHugeOnes() {
+        RollingLogOutputStream console = new RollingLogOutputStream(2);
+        String longLine = "x".repeat(100_000);
+        write(console, "short\n" + longLine + "\n");
+        assertEquals("short\n" + longLine, console.getRecentLines());
+
+        // Doesn't fit even without the older lines, which are dropped
+        write(console, "y".repeat(RollingLogOutputStream.MAX_CAPACITY + 10) + "\n");
+        assertEquals("y".repeat(RollingLogOutputStream.MAX_CAPACITY), console.getRecentLines());
+    }
+
+    @Test
+    void matchesLogOutputStream() throws IOException {
+        Random random = new Random(42);
+        byte[] alphabet = "ab\r\nä".getBytes(StandardCharsets.UTF_8);
+        for (int round = 0; round < 200; round++) {
+            int maxLines = 1 + random.nextInt(20);
+            RollingLogOutputStream console = new RollingLogOutputStream(maxLines);
+            Deque<String> expected = new ArrayDeque<>();
+            LogOutputStream reference =
+                    new LogOutputStream() {
+                        @Override
+                        protected void processLine(String line, int logLevel) {
+                            expected.addLast(line);
+                            if (expected.size() > maxLines) {
+                                expected.removeFirst();
+                            }
+                        }
+                    };
+            byte[] data = new byte[random.nextInt(5000)];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            for (int off = 0; off < data.length; ) {
+                int len = Math.min(data.length - off, random.nextInt(64));
+                if (random.nextInt(10) == 0) {
+                    for (int i = off; i < off + len; i++) {
+                        console.write(data[i]);
+                    }
+                } else {
+                    console.write(data, off, len);
+                }
+                off += len;
+            }
+            for (byte b : data) {
+                reference.write(b);
+            }
+            assertEquals(String.join("\n", expected), console.getRecentLines());
+        }
+    }
+}
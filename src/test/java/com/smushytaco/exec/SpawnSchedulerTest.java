@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link SpawnScheduler}.
+ *
+ * @author Nikan Radan
+ */
+class SpawnSchedulerTest {
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        SpawnScheduler scheduler = new SpawnScheduler(1, 0);
+        SpawnScheduler.Permit permit = scheduler.acquire(0).join();
+        assertEquals(1, scheduler.getInFlight());
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> scheduler.acquire(0).get());
+        assertInstanceOf(ManagedProcessException.class, rejected.getCause());
+        assertEquals(1, scheduler.getRejected());
+        permit.release();
+        permit.release();
+        assertEquals(0, scheduler.getInFlight());
+        scheduler.acquire(0).join().release();
+        assertEquals(2, scheduler.getAdmitted());
+    }
+
+    @Test
+    void admitsHigherPriorityFirst() throws Exception {
+        SpawnScheduler scheduler = new SpawnScheduler(1, 10).setTargetSpawnLatencyMs(60_000);
+        SpawnScheduler.Permit permit = scheduler.acquire(0).join();
+        List<Integer> admitted = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<?>> waiters = new ArrayList<>();
+        // Queued from this one thread, which never blocks
+        for (int priority : new int[] {1, 5, 3}) {
+            waiters.add(
+                    scheduler.acquire(priority).thenAccept(p -> {
+                        admitted.add(priority);
+                        p.release();
+                    }));
+        }
+        CompletableFuture<SpawnScheduler.Permit> abandoned = scheduler.acquire(4);
+        assertEquals(4, scheduler.getQueueDepth());
+        assertTrue(abandoned.cancel(false));
+        assertEquals(3, scheduler.getQueueDepth());
+        permit.release();
+        CompletableFuture.allOf(waiters.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(5, 3, 1), admitted);
+        assertEquals(0, scheduler.getQueueDepth());
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+    @Test
+    void throttlesProcessLaunches() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        SpawnScheduler scheduler = new SpawnScheduler(2, 100);
+        List<ManagedProcess> processes = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            processes.add(new ManagedProcessBuilder("echo").addArgument("hello-" + i).setSpawnScheduler(scheduler).build());
+        }
+        new ManagedProcessGroup(10, processes).start(20_000);
+        for (ManagedProcess process : processes) {
+            process.waitForExit();
+        }
+        assertEquals(10, scheduler.getAdmitted());
+        assertEquals(0, scheduler.getInFlight());
+        assertTrue(scheduler.getConcurrencyLimit() >= 1 && scheduler.getConcurrencyLimit() <= 2);
+    }
+
+    @Test
+    void queuedStartAsyncDoesntBlock() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        SpawnScheduler scheduler = new SpawnScheduler(1, 100).setTargetSpawnLatencyMs(60_000);
+        SpawnScheduler.Permit held = scheduler.acquire(0).join();
+        List<ManagedProcess> processes = new ArrayList<>();
+        List<CompletableFuture<ManagedProcess>> started = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ManagedProcess process =
+                    new ManagedProcessBuilder("echo").addArgument("hello-" + i).setSpawnScheduler(scheduler).build();
+            processes.add(process);
+            started.add(process.startAsync().toCompletableFuture());
+        }
+        // All queued, none launched, and this thread wasn't blocked by any of them
+        assertEquals(5, scheduler.getQueueDepth());
+        assertTrue(started.stream().noneMatch(CompletableFuture::isDone));
+        held.release();
+        CompletableFuture.allOf(started.toArray(new CompletableFuture<?>[0])).get(20, TimeUnit.SECONDS);
+        for (ManagedProcess process : processes) {
+            assertEquals(0, process.waitForExit());
+        }
+        assertEquals(6, scheduler.getAdmitted());
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+    @Test
+    void destroyingQueuedProcessGivesUpLaunch() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        SpawnScheduler scheduler = new SpawnScheduler(1, 10).setTargetSpawnLatencyMs(60_000);
+        SpawnScheduler.Permit held = scheduler.acquire(0).join();
+        ManagedProcess queued = new ManagedProcessBuilder("sleep").addArgument("30").setSpawnScheduler(scheduler).build();
+        CompletableFuture<ManagedProcess> started = queued.startAsync().toCompletableFuture();
+        assertTrue(queued.isAlive());
+        assertEquals(1, scheduler.getQueueDepth());
+        CompletableFuture.runAsync(() -> {
+                    try {
+                        queued.destroy();
+                    } catch (ManagedProcessException | ManagedProcessInterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .get(5, TimeUnit.SECONDS);
+        assertFalse(queued.isAlive());
+        assertEquals(0, scheduler.getQueueDepth());
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> started.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ManagedProcessException.class, failed.getCause());
+        assertTrue(queued.onExit().isCompletedExceptionally());
+        assertEquals(-1, queued.getPid());
+
+        // A queued start() given up on by interrupting it can be destroyed as well
+        ManagedProcess interrupted =
+                new ManagedProcessBuilder("sleep").addArgument("30").setSpawnScheduler(scheduler).build();
+        Thread starter = new Thread(() -> {
+            try {
+                interrupted.start();
+            } catch (ManagedProcessException | ManagedProcessInterruptedException e) {
+                // expected
+            }
+        });
+        starter.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (scheduler.getQueueDepth() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        starter.interrupt();
+        starter.join(10_000);
+        assertEquals(0, scheduler.getQueueDepth());
+        assertFalse(interrupted.isAlive());
+        CompletableFuture.runAsync(() -> assertThrows(ManagedProcessException.class, interrupted::destroy))
+                .get(5, TimeUnit.SECONDS);
+
+        held.release();
+        assertEquals(0, scheduler.getInFlight());
+        assertEquals(1, scheduler.getAdmitted());
+    }
+}
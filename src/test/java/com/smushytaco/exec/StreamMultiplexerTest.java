@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Nikan Radan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.smushytaco.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link StreamMultiplexer}.
+ *
+ * @author Nikan Radan
+ */
+class StreamMultiplexerTest {
+
+    @Test
+    void finishingOpenStreamDoesntStallPumpThreads() throws Exception {
+        CountDownLatch eof = new CountDownLatch(1);
+        // Like the STDOUT of a process whose grandchild keeps it open
+        InputStream open =
+                new InputStream() {
+                    @Override
+                    public int read() {
+                        return read(new byte[1], 0, 1);
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) {
+                        try {
+                            eof.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return -1;
+                    }
+                };
+        // One for every pump thread, which would each wait for one of them before
+        Thread[] finishing = new Thread[StreamMultiplexer.THREADS];
+        for (int i = 0; i < finishing.length; i++) {
+            StreamMultiplexer.Pump pump = StreamMultiplexer.register(open, OutputStream.nullOutputStream());
+            finishing[i] = new Thread(pump::finish);
+            finishing[i].setDaemon(true);
+            finishing[i].start();
+        }
+        try {
+            Thread.sleep(100);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            StreamMultiplexer.Pump live =
+                    StreamMultiplexer.register(
+                            new ByteArrayInputStream("live".getBytes(StandardCharsets.US_ASCII)), out);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (out.size() < 4 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            // Copied by a pump thread, not by finish()
+            assertEquals("live", out.toString(StandardCharsets.US_ASCII));
+            live.finish();
+        } finally {
+            eof.countDown();
+            for (Thread thread : finishing) {
+                thread.join(5000);
+            }
+        }
+    }
+}